@@ -0,0 +1,140 @@
+package com.viaversion.nbt.io;
+
+import com.viaversion.nbt.limiter.TagLimiter;
+import com.viaversion.nbt.tag.CompoundTag;
+import com.viaversion.nbt.tag.IntArrayTag;
+import com.viaversion.nbt.tag.ListTag;
+import com.viaversion.nbt.tag.LongArrayTag;
+import com.viaversion.nbt.tag.StringTag;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reading the same 1.21 chunk NBT through {@link NBTIO#readTrustedTag} and through the tag limiter path.
+ * <p>
+ * Run with {@code mvn -Pjmh compile exec:exec}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TrustedReadBenchmark {
+    private static final int SECTIONS = 24;
+    private static final String[] BLOCKS = {
+        "minecraft:stone", "minecraft:deepslate", "minecraft:dirt", "minecraft:andesite",
+        "minecraft:iron_ore", "minecraft:water", "minecraft:cave_air", "minecraft:gravel"
+    };
+
+    private ByteBuffer buffer;
+    private TagLimiter tagLimiter;
+
+    @Setup
+    public void setup() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NBTIO.writeTag((DataOutput) new DataOutputStream(out), createChunk(new Random(0)), true);
+        this.buffer = ByteBuffer.wrap(out.toByteArray());
+        this.tagLimiter = TagLimiter.create(Integer.MAX_VALUE, 512);
+    }
+
+    @Benchmark
+    public CompoundTag trusted() throws IOException {
+        return NBTIO.readTrustedTag(this.buffer.duplicate(), true, CompoundTag.class);
+    }
+
+    @Benchmark
+    public CompoundTag limited() throws IOException {
+        this.tagLimiter.reset();
+        return NBTIO.readTag(this.buffer.duplicate(), this.tagLimiter, true, CompoundTag.class, TagProjection.all());
+    }
+
+    /**
+     * Creates a chunk shaped like the ones the game writes, with full block palettes in every section.
+     */
+    private static CompoundTag createChunk(final Random random) {
+        final CompoundTag chunk = new CompoundTag();
+        chunk.putInt("DataVersion", 3953);
+        chunk.putInt("xPos", 0);
+        chunk.putInt("yPos", -4);
+        chunk.putInt("zPos", 0);
+        chunk.putString("Status", "minecraft:full");
+        chunk.putLong("LastUpdate", 123456L);
+        chunk.putLong("InhabitedTime", 0L);
+
+        final ListTag<CompoundTag> sections = new ListTag<>(CompoundTag.class);
+        for (int y = -4; y < SECTIONS - 4; y++) {
+            final CompoundTag section = new CompoundTag();
+            section.putByte("Y", (byte) y);
+
+            final ListTag<CompoundTag> palette = new ListTag<>(CompoundTag.class);
+            for (final String block : BLOCKS) {
+                final CompoundTag state = new CompoundTag();
+                state.putString("Name", block);
+                if (block.equals("minecraft:water")) {
+                    final CompoundTag properties = new CompoundTag();
+                    properties.putString("level", "0");
+                    state.put("Properties", properties);
+                }
+                palette.add(state);
+            }
+            final CompoundTag blockStates = new CompoundTag();
+            blockStates.put("palette", palette);
+            blockStates.put("data", new LongArrayTag(randomLongs(random, 256))); // 4 bits per block
+            section.put("block_states", blockStates);
+
+            final ListTag<StringTag> biomePalette = new ListTag<>(StringTag.class);
+            biomePalette.add(new StringTag("minecraft:plains"));
+            biomePalette.add(new StringTag("minecraft:river"));
+            final CompoundTag biomes = new CompoundTag();
+            biomes.put("palette", biomePalette);
+            biomes.put("data", new LongArrayTag(randomLongs(random, 1)));
+            section.put("biomes", biomes);
+            sections.add(section);
+        }
+        chunk.put("sections", sections);
+
+        final CompoundTag heightmaps = new CompoundTag();
+        for (final String type : new String[]{"MOTION_BLOCKING", "MOTION_BLOCKING_NO_LEAVES", "OCEAN_FLOOR", "WORLD_SURFACE"}) {
+            heightmaps.put(type, new LongArrayTag(randomLongs(random, 37)));
+        }
+        chunk.put("Heightmaps", heightmaps);
+
+        final ListTag<CompoundTag> blockEntities = new ListTag<>(CompoundTag.class);
+        for (int i = 0; i < 4; i++) {
+            final CompoundTag blockEntity = new CompoundTag();
+            blockEntity.putString("id", "minecraft:chest");
+            blockEntity.putInt("x", random.nextInt(16));
+            blockEntity.putInt("y", random.nextInt(64));
+            blockEntity.putInt("z", random.nextInt(16));
+            blockEntity.put("Items", new ListTag<>(CompoundTag.class));
+            blockEntities.add(blockEntity);
+        }
+        chunk.put("block_entities", blockEntities);
+        chunk.put("PostProcessing", new IntArrayTag(new int[0]));
+        return chunk;
+    }
+
+    private static long[] randomLongs(final Random random, final int length) {
+        final long[] values = new long[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextLong();
+        }
+        return values;
+    }
+}
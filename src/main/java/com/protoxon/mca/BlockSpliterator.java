@@ -0,0 +1,133 @@
+package com.protoxon.mca;
+
+import com.protoxon.mca.chunk.Block;
+import com.protoxon.mca.chunk.Chunk;
+import com.protoxon.mca.chunk.PaletteDecoder;
+import com.protoxon.mca.chunk.SectionBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Streams the blocks of a region one chunk at a time.<p>
+ * Only the chunk being iterated is held, with one section at a time decoded into a reusable {@link SectionBuffer},
+ * so memory usage does not grow with the size of the region. Splitting divides the remaining chunks, which lets a
+ * parallel stream iterate a different range of chunks on each thread.
+ * Chunks are iterated in the order they are stored in the file, I/O errors are thrown as {@link UncheckedIOException}.
+ */
+final class BlockSpliterator implements Spliterator<Block> {
+
+    //a rough number of blocks per chunk, 24 sections of the default world height
+    private static final long ESTIMATED_BLOCKS_PER_CHUNK = 24L * PaletteDecoder.SECTION_VOLUME;
+
+    private final Region region;
+    private final int[] chunkIndices;
+    private int nextChunk;
+    private final int endChunk;
+
+    private final SectionBuffer buffer = new SectionBuffer();
+    private Chunk chunk;
+    private int chunkX;
+    private int chunkZ;
+    private int sectionCount;
+    private int section;
+    private int sectionY;
+    //the position of the next block in the decoded section, SECTION_VOLUME once the section is done
+    private int position = PaletteDecoder.SECTION_VOLUME;
+
+    /*
+     * @param region, the region to read the chunks from
+     * @param chunkIndices, the indices of the chunks to iterate
+     * @param nextChunk, the first position in chunkIndices to iterate
+     * @param endChunk, the position in chunkIndices to stop at, exclusive
+     */
+    BlockSpliterator(Region region, int[] chunkIndices, int nextChunk, int endChunk) {
+        this.region = region;
+        this.chunkIndices = chunkIndices;
+        this.nextChunk = nextChunk;
+        this.endChunk = endChunk;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Block> action) {
+        while (position >= PaletteDecoder.SECTION_VOLUME) {
+            if(!nextSection()) {
+                return false;
+            }
+        }
+        int i = position++;
+        action.accept(new Block(buffer.getBlockState(i), chunkX + (i & 15), sectionY + (i >>> 8), chunkZ + ((i >>> 4) & 15)));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Block> action) {
+        do {
+            for (int i = position; i < PaletteDecoder.SECTION_VOLUME; i++) {
+                action.accept(new Block(buffer.getBlockState(i), chunkX + (i & 15), sectionY + (i >>> 8), chunkZ + ((i >>> 4) & 15)));
+            }
+            position = PaletteDecoder.SECTION_VOLUME;
+        } while (nextSection());
+    }
+
+    @Override
+    public Spliterator<Block> trySplit() {
+        //only split between chunks, the chunk being iterated comes before the remaining ones
+        if(chunk != null || endChunk - nextChunk < 2) {
+            return null;
+        }
+        int middle = (nextChunk + endChunk) >>> 1;
+        BlockSpliterator prefix = new BlockSpliterator(region, chunkIndices, nextChunk, middle);
+        nextChunk = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return (endChunk - nextChunk + (chunk != null ? 1 : 0)) * ESTIMATED_BLOCKS_PER_CHUNK;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * Decodes the next section with block states into the buffer, loading the next chunk once the current one is done.
+     * @return false if there are no more sections
+     */
+    private boolean nextSection() {
+        while (true) {
+            if(chunk != null) {
+                while (++section < sectionCount) {
+                    if(chunk.decodeSection(section, buffer)) {
+                        sectionY = buffer.getSectionY() << 4;
+                        position = 0;
+                        return true;
+                    }
+                }
+                chunk = null;//release the chunk before loading the next one
+                buffer.clear();
+            }
+            if(nextChunk >= endChunk) {
+                return false;
+            }
+            Chunk next;
+            try {
+                next = region.getBlockStatesChunk(chunkIndices[nextChunk++]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if(next == null || next.getXPos() == null || next.getZPos() == null) {
+                continue;
+            }
+            chunk = next;
+            chunkX = next.getXPos().asInt() << 4;
+            chunkZ = next.getZPos().asInt() << 4;
+            sectionCount = next.getSectionCount();
+            section = -1;
+        }
+    }
+}
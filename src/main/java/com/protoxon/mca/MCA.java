@@ -1,7 +1,9 @@
 package com.protoxon.mca;
 
+import com.protoxon.mca.io.MappedRegionReader;
+
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.RandomAccessFile;
 
 import static com.protoxon.mca.io.readRegionFile.readMCAFile;
@@ -20,7 +22,7 @@ public class MCA {
      * @return a {@link Region} object for parsing the regions' data.
      * @param file a {@link File} object representing the region file to be opened.
      */
-    public Region read(File file) throws FileNotFoundException {
+    public Region read(File file) throws IOException {
         return new Region(new RandomAccessFile(file, "r"));
     }
 
@@ -30,7 +32,39 @@ public class MCA {
      * @return a {@link Region} object for parsing the regions' data.
      * @param filePath a {@link String} representing the path to the region file
      */
-    public Region read(String filePath) throws FileNotFoundException {
+    public Region read(String filePath) throws IOException {
         return new Region(new RandomAccessFile(filePath, "r"));
     }
+
+    /**
+     * Reads an MCA file by mapping it into memory.<p>
+     * Chunks are decompressed straight from the mapped file, without seeking or copying their sectors onto the heap.
+     * @see com.protoxon.mca.io.MappedRegionReader
+     * @return a {@link Region} object for parsing the regions' data.
+     * @param file a {@link File} object representing the region file to be mapped.
+     */
+    public Region readMapped(File file) throws IOException {
+        return new Region(new MappedRegionReader(file));
+    }
+
+    /**
+     * Reads an MCA file by mapping it into memory.<p>
+     * Chunks are decompressed straight from the mapped file, without seeking or copying their sectors onto the heap.
+     * @see com.protoxon.mca.io.MappedRegionReader
+     * @return a {@link Region} object for parsing the regions' data.
+     * @param filePath a {@link String} representing the path to the region file
+     */
+    public Region readMapped(String filePath) throws IOException {
+        return new Region(new MappedRegionReader(new File(filePath)));
+    }
+
+    /**
+     * Creates a scanner for searching all region files of a world in parallel.
+     * @see WorldScanner
+     * @return a {@link WorldScanner} for the region files in the directory.
+     * @param regionDirectory a {@link File} representing the directory holding the region files, e.g. world/region
+     */
+    public WorldScanner scan(File regionDirectory) {
+        return new WorldScanner(regionDirectory);
+    }
 }
@@ -1,34 +1,95 @@
 package com.protoxon.mca;
 
+import com.protoxon.mca.cache.ChunkCache;
 import com.protoxon.mca.chunk.Block;
+import com.protoxon.mca.chunk.BlockConsumer;
+import com.protoxon.mca.chunk.BlockState;
+import com.protoxon.mca.chunk.BlockStateRegistry;
 import com.protoxon.mca.chunk.Chunk;
+import com.protoxon.mca.chunk.ChunkBase;
+import com.protoxon.mca.compression.Compression;
+import com.protoxon.mca.index.RegionFilter;
+import com.protoxon.mca.index.RegionIndex;
+import com.protoxon.mca.io.FileRegionReader;
+import com.protoxon.mca.io.RegionReader;
+import com.viaversion.nbt.io.NBTIO;
+import com.viaversion.nbt.io.TagProjection;
+import com.viaversion.nbt.io.TagVisitor;
 import com.viaversion.nbt.tag.CompoundTag;
 import com.viaversion.nbt.tag.ListTag;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import static com.protoxon.mca.utils.ByteUtils.bytesToInt;
+/**
+ * A region file holding a 32x32 area of chunks.<p>
+ * Chunks can be read from many threads at once, the region file is read with positional reads and fetched chunks are buffered in a thread safe {@link ChunkCache}.
+ */
+public class Region implements Closeable {
 
-public class Region {
+    //the size of a sector in the region file, chunk offsets and lengths are stored in sectors
+    static final int SECTOR_SIZE = 4096;
 
-    RandomAccessFile MCAFile;
+    //the tags needed to iterate the blocks of a chunk
+    private static final TagProjection BLOCK_STATES = TagProjection.of("xPos", "zPos", "sections[].Y", "sections[].block_states");
 
-    //A HashMap to store all chunks that have been previously fetched
-    //The key is a long that holds two 32-bit integers representing the x and z positions of the chunk
-    HashMap<Long, Chunk> bufferedChunks = new HashMap<>();
+    RegionReader MCAFile;
+
+    //The location table from the region header, loaded once when the region is opened
+    //Each entry holds the chunks offset in sectors in the upper 3 bytes and its sector count in the lowest byte
+    final int[] locations = new int[1024];
+
+    //The timestamp table from the region header, the last modification time of each chunk in epoch seconds
+    final int[] timestamps = new int[1024];
+
+    //A cache to store chunks that have been previously fetched, safe to use from multiple threads
+    //The key is the index of the chunk in the region, see getIndex
+    volatile ChunkCache bufferedChunks = ChunkCache.unbounded();
+    //whether chunks are parsed lazily, only creating the tags of their NBT once they are accessed
+    volatile boolean lazyParsing;
 
     /**
      * initializes the region for reading from a file
      * @param file a RandomAccessFile representing the region
+     * @throws IOException if the region header could not be read
+     */
+    Region(RandomAccessFile file) throws IOException {
+        this(new FileRegionReader(file));
+    }
+
+    /**
+     * initializes the region for reading with the given reader
+     * @param reader a {@link RegionReader} used to fetch the header and chunk sectors, such as a memory mapped reader,
+     *               closed if the header could not be read
+     * @throws IOException if the region header could not be read
      */
-    Region(RandomAccessFile file) {
-        MCAFile = file;
+    Region(RegionReader reader) throws IOException {
+        MCAFile = reader;
+        try {
+            readHeader();
+        } catch (IOException | RuntimeException e) {
+            //the caller never gets the region, so it can not close the reader
+            try {
+                reader.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
     }
 
     /**
@@ -39,6 +100,35 @@ public class Region {
     Region(byte[] region) {}
 
 
+    /**
+     * Sets the cache used to buffer fetched chunks.<p>
+     * By default every fetched chunk is kept until the region is discarded, use a bounded cache to limit memory usage
+     * or {@link ChunkCache#none()} for one-pass scans.
+     * @param chunkCache the cache to use, chunks buffered by the previous cache are discarded
+     */
+    public void setChunkCache(ChunkCache chunkCache) {
+        bufferedChunks = chunkCache;
+    }
+
+    /**
+     * Sets whether chunks are parsed lazily.<p>
+     * Lazily parsed chunks keep a copy of their decompressed NBT and only create the tags that are accessed,
+     * which is cheaper when only a few fields of each chunk are read. Only affects chunks fetched afterwards
+     * @param lazyParsing true to parse chunks lazily
+     * @see com.viaversion.nbt.io.NBTIO#readLazyTag
+     */
+    public void setLazyParsing(boolean lazyParsing) {
+        this.lazyParsing = lazyParsing;
+    }
+
+    /**
+     * Gets the cache used to buffer fetched chunks, such as for reading its hit and miss counters.
+     * @return the {@link ChunkCache} used by this region
+     */
+    public ChunkCache getChunkCache() {
+        return bufferedChunks;
+    }
+
     /**
      * gets a chunk from the region
      * @param x The x-coordinate of the chunk.
@@ -46,24 +136,96 @@ public class Region {
      * @return a {@link Chunk} object for parsing a single chunks data
      * */
     public Chunk getChunk(int x, int z) throws IOException {
-        long key = ((long) x << 32) | z;//compute the key by storing x and z in a long
-        if(bufferedChunks.containsKey(key)) {//check if the chunk is in the buffer
-            return bufferedChunks.get(key);
+        int key = getIndex(x, z);
+        Chunk bufferedChunk = bufferedChunks.get(key);
+        if(bufferedChunk != null) {//check if the chunk is in the buffer
+            return bufferedChunk;
         }
         //if the chunk wasn't in the buffer fetch it from the MCA file
-        int offset = getChunksOffset(x, z);
-        if(offset == 0) {//chunk has not yet been generated yet handle accordingly
+        ByteBuffer payload = readPayload(key);
+        if(payload == null) {//chunk has not yet been generated yet handle accordingly
             //todo add the ability to generate basic NBT for a chunk so information such as blocks can be inserted
             return null;
         }
-        MCAFile.seek(offset);
-        int length = MCAFile.readInt();//get the length if the rest of the chunks data
-        int compressionType = MCAFile.readByte();//get the chunks compression type
-        byte[] compressedData = new byte[length - 1];
-        MCAFile.readFully(compressedData);//read the compressed chunk data from the file
-        Chunk chunk = new Chunk(compressionType, compressedData);
-        bufferedChunks.put(key, chunk);//add the chunk to the buffer
-        return chunk;
+        //add the chunk to the buffer, if another thread loaded the same chunk first use its copy instead
+        return bufferedChunks.putIfAbsent(key, parseChunk(payload));
+    }
+
+    /**
+     * gets a chunk from the region, only parsing the given tag paths of its NBT<p>
+     * Everything outside the projection is skipped while parsing, which is much cheaper when only a few fields are needed.
+     * DataVersion is always included. Projected chunks bypass the chunk cache, since they are incomplete
+     * @param x The x-coordinate of the chunk.
+     * @param z The z-coordinate of the chunk.
+     * @param projection the tag paths to parse, for example {@code TagProjection.of("xPos", "zPos", "Status")}
+     * @return a {@link Chunk} object holding only the projected data, or null if the chunk has not been generated
+     * @see TagProjection
+     */
+    public Chunk getChunk(int x, int z, TagProjection projection) throws IOException {
+        ByteBuffer payload = readPayload(getIndex(x, z));
+        if(payload == null) {
+            return null;
+        }
+        int compressionType = payload.get();
+        return new Chunk(compressionType, payload.slice(), projection.with("DataVersion"));
+    }
+
+    /**
+     * Streams the NBT of a chunk through a {@link TagVisitor} without building a {@link Chunk} or any tags<p>
+     * Useful for scans over many chunks, such as counting entities, where the tag tree would be the main allocation.
+     * The chunk is decompressed into the threads scratch buffer, so the visitor must not read other chunks on the same thread
+     * @param x The x-coordinate of the chunk.
+     * @param z The z-coordinate of the chunk.
+     * @param visitor the visitor receiving the chunks NBT
+     * @return true if the chunk was visited, false if the chunk has not been generated
+     * @throws IOException if an I/O error occurs or the chunk data is invalid
+     */
+    public boolean visitChunk(int x, int z, TagVisitor visitor) throws IOException {
+        ByteBuffer payload = readPayload(getIndex(x, z));
+        if(payload == null) {
+            return false;
+        }
+        int compressionType = payload.get();
+        ByteBuffer chunkData = Compression.decompressToBuffer(compressionType, payload.slice());
+        NBTIO.visit(chunkData, null, true, visitor);//region files are trusted, skip the tag limiter
+        return true;
+    }
+
+    /**
+     * Reads the payload of a chunk from the region file.<p>
+     * The payload starts with the compression type of the chunk, followed by the compressed chunk data.
+     * @param index the index of the chunk in the region
+     * @return a buffer holding the payload, or null if the chunk has not been generated
+     * @throws IOException if an I/O error occurs or the chunk header is invalid
+     */
+    private ByteBuffer readPayload(int index) throws IOException {
+        int x = index & 31;
+        int z = index >> 5;
+        int offset = getChunksOffset(x, z);
+        if(offset == 0) {
+            return null;
+        }
+        ByteBuffer sectors = MCAFile.read(offset, getSectorCount(x, z) * SECTOR_SIZE);//read all the chunks sectors at once
+        if(sectors.remaining() < 5) {
+            throw new IOException("missing chunk header for chunk " + x + ", " + z);
+        }
+        int length = sectors.getInt();//get the length if the rest of the chunks data, including the compression type
+        if(length < 1 || length > sectors.remaining()) {
+            throw new IOException("invalid chunk length " + length + " for chunk " + x + ", " + z);
+        }
+        sectors.limit(sectors.position() + length);//limit the buffer to the chunks payload
+        return sectors.slice();
+    }
+
+    /**
+     * Decompresses and parses a chunk payload read by {@link #readPayload(int)}
+     * @param payload the compression type followed by the compressed chunk data
+     * @return the parsed {@link Chunk}
+     * @throws IOException if the chunk could not be decompressed or parsed
+     */
+    private Chunk parseChunk(ByteBuffer payload) throws IOException {
+        int compressionType = payload.get();//get the chunks compression type
+        return new Chunk(compressionType, payload.slice(), lazyParsing);
     }
 
     /**
@@ -78,33 +240,100 @@ public class Region {
      */
     public Chunk[] getChunks() throws IOException {
         Chunk[] chunks = new Chunk[1024];
-        for (int z = 0; z < 32; z++) {
-            for (int x = 0; x < 32; x++) {
-                Chunk chunk = getChunk(x, z);
-                if(chunk != null) {
-                    chunks[z * 32 + x] = chunk;
+        for (int index : getIndicesInFileOrder()) {//read in file order so the disk is read sequentially
+            chunks[index] = getChunk(index & 31, index >> 5);
+        }
+        return chunks;
+    }
+
+    /**
+     * Retrieves all the chunks within the region file, decompressing and parsing them in parallel.<p>
+     * The chunks are read from the file sequentially in the order they are stored on disk by the calling thread,
+     * while decompressing and parsing is done by the executor, e.g. a {@link java.util.concurrent.ForkJoinPool}.<p>
+     * Chunks are stored in the array in the same order as {@link #getChunks()}
+     * @param executor the executor to decompress and parse chunks on
+     * @return an {@code array} containing all the chunks in the region.
+     * @throws IOException if an I/O error occurs while reading from the region file or parsing a chunk.
+     */
+    public Chunk[] getChunks(Executor executor) throws IOException {
+        Chunk[] chunks = new Chunk[1024];
+        ArrayList<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int index : getIndicesInFileOrder()) {
+            Chunk bufferedChunk = bufferedChunks.get(index);
+            if(bufferedChunk != null) {
+                chunks[index] = bufferedChunk;
+                continue;
+            }
+            ByteBuffer payload = readPayload(index);
+            tasks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    chunks[index] = bufferedChunks.putIfAbsent(index, parseChunk(payload));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
+            }, executor));
+        }
+        try {
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
             }
+            throw e;
         }
         return chunks;
     }
 
+    /**
+     * Gets the index of every generated chunk, sorted by the chunks offset in the file
+     * @return the chunk indices in the order their data is stored in the file
+     */
+    int[] getIndicesInFileOrder() {
+        //pack the sector offset above the index so sorting the keys sorts by offset
+        long[] keys = new long[1024];
+        int count = 0;
+        for (int index = 0; index < 1024; index++) {
+            int sectorOffset = locations[index] >>> 8;
+            if(sectorOffset != 0) {
+                keys[count++] = ((long) sectorOffset << 10) | index;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            indices[i] = (int) (keys[i] & 1023);
+        }
+        return indices;
+    }
+
     /**
      * gets all the offset values in bytes
      * @return An ArrayList of offsets
      */
-    public ArrayList<Integer> getOffsets() throws IOException {
+    public ArrayList<Integer> getOffsets() {
         ArrayList<Integer> offsets = new ArrayList<>(1024);
-        MCAFile.seek(0);
-        for (int i = 0; i < 1024; i++) {
-            byte[] offsetInBytes = new byte[3];
-            MCAFile.read(offsetInBytes);//read the next 3 bytes from the file
-            offsets.add(bytesToInt(offsetInBytes) * 4096);
-            MCAFile.skipBytes(1);
+        for (int location : locations) {
+            offsets.add((location >>> 8) * SECTOR_SIZE);
         }
         return offsets;
     }
 
+    /**
+     * Reads the 8KiB region header into the location and timestamp tables.<p>
+     * The first 4KiB holds a 4 byte location entry for each of the 1024 chunks, the second 4KiB holds a 4 byte timestamp for each chunk.
+     * see <a href="https://minecraft.wiki/w/Region_file_format#Header">Region File Header</a> for more info
+     * @throws IOException if the header could not be read
+     */
+    private void readHeader() throws IOException {
+        ByteBuffer header = MCAFile.read(0, 2 * SECTOR_SIZE);//read both header tables with a single read
+        if(header.remaining() < 2 * SECTOR_SIZE) {
+            throw new IOException("region file is too small to contain a header");
+        }
+        IntBuffer entries = header.asIntBuffer();
+        entries.get(locations);
+        entries.get(timestamps);
+    }
+
     /**
      * Calculates the byte offset for the chunk at (x, z) <p>
      * The offset for each chunk is stored in 3 bytes as an unsigned integer<p>
@@ -113,12 +342,39 @@ public class Region {
      * @param z The z-coordinate of the chunk.
      * @return the chunk data offset in bytes from the start of the file
      */
-    private int getChunksOffset(int x, int z) throws IOException {
-        int offsetLocation = 4 * ((x & 31) + (z & 31) * 32);//calculate the location of the chunks offset information in the file
-        MCAFile.seek(offsetLocation);//go to the offsets location in the file
-        byte[] offsetInBytes = new byte[3];
-        MCAFile.read(offsetInBytes);//read the next 3 bytes from the file
-        return bytesToInt(offsetInBytes) * 4096;//multiply by 4096 to get the offset in bytes
+    private int getChunksOffset(int x, int z) {
+        return (locations[getIndex(x, z)] >>> 8) * SECTOR_SIZE;//multiply by 4096 to get the offset in bytes
+    }
+
+    /**
+     * Gets the number of 4KiB sectors the chunk at (x, z) occupies in the file. <p>
+     * The sector count for each chunk is stored in the lowest byte of its location entry
+     * @param x The x-coordinate of the chunk.
+     * @param z The z-coordinate of the chunk.
+     * @return the number of sectors used by the chunk, or 0 if the chunk has not been generated
+     */
+    public int getSectorCount(int x, int z) {
+        return locations[getIndex(x, z)] & 0xFF;
+    }
+
+    /**
+     * Gets the last time the chunk at (x, z) was modified
+     * @param x The x-coordinate of the chunk.
+     * @param z The z-coordinate of the chunk.
+     * @return the modification time in epoch seconds, or 0 if the chunk has not been generated
+     */
+    public int getTimestamp(int x, int z) {
+        return timestamps[getIndex(x, z)];
+    }
+
+    /**
+     * Calculates the index of the chunk at (x, z) in the region header tables
+     * @param x The x-coordinate of the chunk.
+     * @param z The z-coordinate of the chunk.
+     * @return the index of the chunk, ranging from 0 to 1023
+     */
+    static int getIndex(int x, int z) {
+        return (x & 31) + (z & 31) * 32;
     }
 
     /**
@@ -127,68 +383,193 @@ public class Region {
      * @param x The x-coordinate of the chunk
      * @param y The y-coordinate of the chunk
      * @param z The z-coordinate of the chunk
-     * @return The block at the coordinate location
+     * @return The block at the coordinate location, or null if its chunk or section has not been generated
      */
     public Block getBlock(int x, int y, int z) throws IOException {
         int chunkX = x >> 4; // equivalent to x / 16
         int chunkZ = z >> 4; // equivalent to z / 16
-        return getChunk(chunkX, chunkZ).getBlock(x, y, z);
+        Chunk chunk = getChunk(chunkX, chunkZ);
+        return chunk == null ? null : chunk.getBlockAt(x, y, z);
+    }
+
+    /**
+     * Gets the block state at the specified location.<p>
+     * The block coordinates can be absolute coordinates, or they can be relative to the region.
+     * @param x The x-coordinate of the block
+     * @param y The y-coordinate of the block
+     * @param z The z-coordinate of the block
+     * @return The interned block state at the coordinate location, or null if its chunk or section has not been generated
+     */
+    public BlockState getBlockState(int x, int y, int z) throws IOException {
+        Chunk chunk = getChunk(x >> 4, z >> 4);
+        return chunk == null ? null : chunk.getBlockStateAt(x, y, z);
     }
 
     /**
-     * Retrieves all blocks that match the specified block.
-     * @param block the block to search for.
-     * @return an {@link Iterable} of {@link Block} objects that match the specified block.
+     * Retrieves all blocks that match the specified block.<p>
+     * Only the block states of each chunk are parsed and sections whose palette does not contain the block are skipped,
+     * see {@link Chunk#findBlock(Predicate)}
+     * @param block the block to search for, its position is ignored
+     * @return an {@link ArrayList} of {@link Block} objects with the same name and properties as the specified block.
      */
     public ArrayList<Block> findBlock(Block block) throws IOException {
+        BlockState state = BlockStateRegistry.global().intern(block.getBlockState());
+        return findBlock(entry -> BlockStateRegistry.global().intern(entry) == state);
+    }
+
+    /**
+     * Retrieves all blocks that match the specified block name.<p>
+     * Only the block states of each chunk are parsed and sections whose palette does not contain the block are skipped,
+     * see {@link Chunk#findBlock(Predicate)}
+     * @param name the block to search for, e.g. minecraft:spawner
+     * @return an {@link ArrayList} of {@link Block} objects that match the specified block name.
+     */
+    public ArrayList<Block> findBlock(String name) throws IOException {
+        return findBlock(ChunkBase.matchesName(name));
+    }
+
+    /**
+     * Retrieves all blocks that match the specified block name, using an index to only search the sections containing the block.<p>
+     * The index is updated first, so chunks modified since it was built are reindexed before searching.
+     * @param name the block to search for, e.g. minecraft:chest
+     * @param index the index of this region
+     * @return an {@link ArrayList} of {@link Block} objects that match the specified block name.
+     * @throws IOException if an I/O error occurs or a chunk could not be parsed
+     */
+    public ArrayList<Block> findBlock(String name, RegionIndex index) throws IOException {
+        index.update(this);
+        Predicate<CompoundTag> matcher = ChunkBase.matchesName(name);
         ArrayList<Block> blocks = new ArrayList<>();
-        for(Chunk chunk : getChunks()) {
-            blocks.addAll(chunk.findBlock(block));
+        for (int chunkIndex : index.getChunks(name)) {
+            long sectionMask = index.getSectionMask(chunkIndex & 31, chunkIndex >> 5, name);
+            Chunk chunk = getBlockStatesChunk(chunkIndex);
+            if(chunk != null) {
+                blocks.addAll(chunk.findBlock(matcher, sectionMask));
+            }
         }
         return blocks;
     }
 
     /**
-     * Retrieves all blocks that match the specified block.
-     * @param name the block to search for.
-     * @return an {@link Iterable} of {@link Block} objects that match the specified block name.
+     * Retrieves all blocks that match the specified block name, skipping chunks whose filter shows they do not contain the block.<p>
+     * Skipped chunks are not decompressed at all, so searches for rare blocks only inflate the few chunks that might hold them.
+     * The filters are updated first, so chunks modified since they were built are summarized again before searching.
+     * @param name the block to search for, e.g. minecraft:spawner
+     * @param filter the filters of this region
+     * @return an {@link ArrayList} of {@link Block} objects that match the specified block name.
+     * @throws IOException if an I/O error occurs or a chunk could not be parsed
      */
-    public ArrayList<Block> findBlock(String name) throws IOException {
+    public ArrayList<Block> findBlock(String name, RegionFilter filter) throws IOException {
+        filter.update(this);
+        Predicate<CompoundTag> matcher = ChunkBase.matchesName(name);
         ArrayList<Block> blocks = new ArrayList<>();
-        for(Chunk chunk : getChunks()) {
-            if(chunk == null) {
+        for (int index : getIndicesInFileOrder()) {
+            if(!filter.mightContain(index, name)) {
                 continue;
             }
-            blocks.addAll(chunk.findBlock(name));
+            Chunk chunk = getBlockStatesChunk(index);
+            if(chunk != null) {
+                blocks.addAll(chunk.findBlock(matcher));
+            }
         }
         return blocks;
     }
 
     /**
-     * Retrieves all blocks within a region. <p>
-     *
-     * @return an array of blocks
+     * Retrieves all blocks whose palette entry matches.<p>
+     * The matcher is called once per palette entry of each section, the block data of sections without a match is not unpacked.
+     * Chunks are read in file order and bypass the chunk cache, chunks that are already cached are searched as they are.
+     * @param matcher tests a palette entry, a CompoundTag holding the Name and Properties of a block state
+     * @return an {@link ArrayList} of the matching blocks
+     * @throws IOException if an I/O error occurs or a chunk could not be parsed
      */
-    public Iterable<Block> getBlocks() throws IOException {
-        Chunk[] chunks = getChunks();
-        return () -> new Iterator<Block>() {
-            private int chunkIndex = 0;
-            private int blockIndex = 0;
-            private Block[] currentBlocks = chunks[0].getBlocks();
-            @Override
-            public boolean hasNext() {
-                return chunkIndex < chunks.length && blockIndex < 98304;
+    public ArrayList<Block> findBlock(Predicate<CompoundTag> matcher) throws IOException {
+        ArrayList<Block> blocks = new ArrayList<>();
+        for (int index : getIndicesInFileOrder()) {
+            Chunk chunk = getBlockStatesChunk(index);
+            if(chunk != null) {
+                blocks.addAll(chunk.findBlock(matcher));
             }
-            @Override
-            public Block next() {
-                Block block = currentBlocks[blockIndex++];
-                if (blockIndex >= 98304 && chunkIndex < chunks.length - 1) {
-                    blockIndex = 0;
-                    currentBlocks = chunks[++chunkIndex].getBlocks();
-                }
-                return block;
+        }
+        return blocks;
+    }
+
+    /**
+     * Passes every block in the region to the consumer as world coordinates and a block state id.<p>
+     * Chunks are read one at a time in file order, only their block states are parsed and they bypass the chunk cache,
+     * so memory usage stays constant no matter how many blocks the region holds.
+     * Block states are resolved through the {@link BlockStateRegistry#global() global registry}
+     * @param consumer the consumer receiving the blocks
+     * @throws IOException if an I/O error occurs or a chunk could not be parsed
+     * @see Chunk#forEachBlock(BlockConsumer)
+     */
+    public void forEachBlock(BlockConsumer consumer) throws IOException {
+        forEachBlock(BlockStateRegistry.global(), consumer);
+    }
+
+    /**
+     * Passes every block in the region to the consumer as world coordinates and a block state id.<p>
+     * See {@link #forEachBlock(BlockConsumer)}
+     * @param registry the registry to resolve the block states of the chunks palettes with
+     * @param consumer the consumer receiving the blocks
+     * @throws IOException if an I/O error occurs or a chunk could not be parsed
+     */
+    public void forEachBlock(BlockStateRegistry registry, BlockConsumer consumer) throws IOException {
+        for (int index : getIndicesInFileOrder()) {
+            Chunk chunk = getBlockStatesChunk(index);
+            if(chunk != null) {
+                chunk.forEachBlock(registry, consumer);
             }
-        };
+        }
+    }
+
+    /**
+     * Gets a chunk for reading its blocks, the cached chunk if there is one, otherwise one with only its block states parsed.
+     * @param index the index of the chunk in the region
+     * @return the chunk, or null if the chunk has not been generated
+     * @throws IOException if an I/O error occurs or the chunk could not be parsed
+     */
+    Chunk getBlockStatesChunk(int index) throws IOException {
+        Chunk bufferedChunk = bufferedChunks.get(index);
+        if(bufferedChunk != null) {
+            return bufferedChunk;
+        }
+        return getChunk(index & 31, index >> 5, BLOCK_STATES);
+    }
+
+    /**
+     * Retrieves all blocks within a region. <p>
+     * The blocks are streamed, chunks are loaded one at a time when the iterator reaches them, see {@link #streamBlocks(boolean)}.
+     * I/O errors while iterating are thrown as {@link UncheckedIOException}
+     * @return an {@link Iterable} over the blocks, each call to iterator() starts a new pass over the region
+     */
+    public Iterable<Block> getBlocks() throws IOException {
+        return () -> Spliterators.iterator(blockSpliterator());
+    }
+
+    /**
+     * Streams all blocks within a region.<p>
+     * Chunks are read in the order they are stored in the file, one at a time, and only one section of a chunk is decoded at once,
+     * so memory usage is one chunk per thread rather than the whole region. Chunks already in the chunk cache are used as they are,
+     * others are read with only their block states and not cached.
+     * Parallel streams split the region by chunk. I/O errors while streaming are thrown as {@link UncheckedIOException}
+     * <pre>{@code
+     * long stone = region.streamBlocks(true).filter(block -> block.getName().equals("minecraft:stone")).count();
+     * }</pre>
+     * @param parallel whether to return a parallel stream
+     * @return a stream of the blocks in the region
+     */
+    public Stream<Block> streamBlocks(boolean parallel) {
+        return StreamSupport.stream(blockSpliterator(), parallel);
+    }
+
+    /**
+     * Creates a spliterator over all blocks within a region, see {@link #streamBlocks(boolean)}
+     * @return a spliterator that loads one chunk at a time
+     */
+    public Spliterator<Block> blockSpliterator() {
+        int[] indices = getIndicesInFileOrder();
+        return new BlockSpliterator(this, indices, 0, indices.length);
     }
 
     /**
@@ -215,4 +596,13 @@ public class Region {
         }
         return blockEntities;
     }
+
+    /**
+     * Closes the underlying region file.
+     * @throws IOException if an I/O error occurs while closing the region file.
+     */
+    @Override
+    public void close() throws IOException {
+        MCAFile.close();
+    }
 }
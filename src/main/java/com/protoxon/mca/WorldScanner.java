@@ -0,0 +1,267 @@
+package com.protoxon.mca;
+
+import com.protoxon.mca.cache.ChunkCache;
+import com.protoxon.mca.chunk.Block;
+import com.protoxon.mca.chunk.Chunk;
+import com.protoxon.mca.chunk.ChunkBase;
+import com.protoxon.mca.io.FileRegionReader;
+import com.viaversion.nbt.io.TagProjection;
+import com.viaversion.nbt.tag.CompoundTag;
+import com.viaversion.nbt.tag.ListTag;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Searches every region file of a world in parallel.<p>
+ * The scanner is pointed at a directory holding {@code r.X.Z.mca} files, such as the {@code region} directory of a world,
+ * or its {@code entities} directory for entity searches. Each region file is scanned by a single task on a
+ * {@link ForkJoinPool}, so idle threads steal whole files from busy ones. Chunks are read one at a time with only the
+ * tags the search needs, they bypass any chunk cache, and matches are passed to the callback as soon as a chunk is searched.
+ * Memory usage therefore depends on the number of files scanned at once, see {@link #setMaxInFlight(int)},
+ * not on the size of the world.
+ * <pre>{@code
+ * WorldScanner scanner = new WorldScanner(new File("world/region"));
+ * scanner.setListener((file, failure, completed, total) -> System.out.println(completed + "/" + total));
+ * scanner.findBlocks("minecraft:spawner", block -> System.out.println(Arrays.toString(block.getPos())));
+ * }</pre>
+ * Callbacks are called from the pool threads, possibly at the same time, so they must be thread safe.
+ */
+public class WorldScanner {
+
+    private static final Pattern REGION_FILE = Pattern.compile("r\\.-?\\d+\\.-?\\d+\\.mca");
+    private static final TagProjection ENTITIES = TagProjection.of("Entities");
+    private static final TagProjection BLOCK_ENTITIES = TagProjection.of("block_entities");
+
+    private final File regionDirectory;
+    private volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+    private volatile int maxInFlight = -1;
+    private volatile Listener listener = (file, failure, completed, total) -> {};
+
+    /**
+     * @param regionDirectory the directory holding the region files, e.g. world/region
+     */
+    public WorldScanner(File regionDirectory) {
+        this.regionDirectory = regionDirectory;
+    }
+
+    /**
+     * Sets the pool the region files are scanned on, by default the {@link ForkJoinPool#commonPool() common pool}.
+     * @param pool the pool to scan on
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sets how many region files may be queued or scanned at once.<p>
+     * The thread starting a scan waits before submitting more files, which bounds the number of open files
+     * and decompressed chunks held at any time. Defaults to twice the parallelism of the pool
+     * @param maxInFlight the max number of region files in flight, at least 1
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        if(maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1, got " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Sets the listener notified after each region file has been scanned.
+     * @param listener the listener, called from the pool threads
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the region files the scanner searches, sorted by name.<p>
+     * Empty files, which the game sometimes leaves behind, are skipped.
+     * @return the region files in the directory
+     * @throws IOException if the directory could not be listed
+     */
+    public List<File> getRegionFiles() throws IOException {
+        File[] files = regionDirectory.listFiles(file -> file.isFile() && file.length() > 0 && REGION_FILE.matcher(file.getName()).matches());
+        if(files == null) {
+            throw new IOException("could not list region files in " + regionDirectory);
+        }
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    /**
+     * Finds every block with the given name, regardless of its properties.
+     * @param name the namespaced block name, e.g. minecraft:spawner
+     * @param consumer receives each matching block
+     * @throws IOException if the directory could not be listed or region files could not be scanned, see {@link #scan(ChunkTask)}
+     */
+    public void findBlocks(String name, Consumer<Block> consumer) throws IOException {
+        findBlocks(ChunkBase.matchesName(name), consumer);
+    }
+
+    /**
+     * Finds every block whose palette entry matches.<p>
+     * Sections whose palette has no matching entry are skipped without unpacking their blocks, see {@link Chunk#findBlock(Predicate)}
+     * @param matcher tests a palette entry, a CompoundTag holding the Name and Properties of a block state
+     * @param consumer receives each matching block
+     * @throws IOException if the directory could not be listed or region files could not be scanned, see {@link #scan(ChunkTask)}
+     */
+    public void findBlocks(Predicate<CompoundTag> matcher, Consumer<Block> consumer) throws IOException {
+        scan((region, index) -> {
+            Chunk chunk = region.getBlockStatesChunk(index);
+            if(chunk != null) {
+                chunk.findBlock(matcher).forEach(consumer);
+            }
+        });
+    }
+
+    /**
+     * Finds every entity that matches.<p>
+     * Since 1.17 entities are stored in separate region files, so the scanner should point at the worlds entities directory.
+     * @param matcher tests the entity NBT
+     * @param consumer receives each matching entity
+     * @throws IOException if the directory could not be listed or region files could not be scanned, see {@link #scan(ChunkTask)}
+     */
+    public void findEntities(Predicate<CompoundTag> matcher, Consumer<CompoundTag> consumer) throws IOException {
+        scan((region, index) -> {
+            Chunk chunk = region.getChunk(index & 31, index >> 5, ENTITIES);
+            if(chunk != null) {
+                accept(chunk.getEntities(), matcher, consumer);
+            }
+        });
+    }
+
+    /**
+     * Finds every block entity that matches, such as chests holding a certain item.
+     * @param matcher tests the block entity NBT
+     * @param consumer receives each matching block entity
+     * @throws IOException if the directory could not be listed or region files could not be scanned, see {@link #scan(ChunkTask)}
+     */
+    public void findBlockEntities(Predicate<CompoundTag> matcher, Consumer<CompoundTag> consumer) throws IOException {
+        scan((region, index) -> {
+            Chunk chunk = region.getChunk(index & 31, index >> 5, BLOCK_ENTITIES);
+            if(chunk != null) {
+                accept(chunk.getBlockEntities(), matcher, consumer);
+            }
+        });
+    }
+
+    /**
+     * Runs a task for every generated chunk of every region file.<p>
+     * The chunks of a region are passed to the task in the order they are stored in the file, with the region opened
+     * without a chunk cache. A region file that fails does not stop the others from being scanned, once all files have been
+     * scanned the first failure is thrown with the others added as suppressed exceptions.
+     * @param task the task to run for each chunk
+     * @throws IOException if the directory could not be listed or any region file could not be scanned
+     */
+    public void scan(ChunkTask task) throws IOException {
+        List<File> files = getRegionFiles();
+        ForkJoinPool pool = this.pool;
+        Listener listener = this.listener;
+        int total = files.size();
+        AtomicInteger completed = new AtomicInteger();
+        Queue<IOException> failures = new ConcurrentLinkedQueue<>();
+        Semaphore inFlight = new Semaphore(maxInFlight > 0 ? maxInFlight : pool.getParallelism() * 2);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(total);
+        try {
+            for (File file : files) {
+                inFlight.acquire();//wait for a slot so only a bounded number of files are open at once
+                tasks.add(pool.submit(() -> {
+                    Exception failure = null;
+                    try {
+                        scanRegion(file, task);
+                    } catch (IOException | RuntimeException e) {
+                        failure = e;
+                        failures.add(new IOException("failed to scan " + file, e));
+                    } finally {
+                        inFlight.release();
+                    }
+                    listener.regionScanned(file, failure, completed.incrementAndGet(), total);
+                }));
+            }
+        } catch (InterruptedException e) {
+            tasks.forEach(t -> t.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while scanning " + regionDirectory);
+        }
+        for (ForkJoinTask<?> t : tasks) {
+            t.join();
+        }
+
+        IOException exception = failures.poll();
+        if(exception != null) {
+            for (IOException failure : failures) {
+                exception.addSuppressed(failure);
+            }
+            throw exception;
+        }
+    }
+
+    //------------------------------private utility methods------------------------------\\
+    private static void scanRegion(File file, ChunkTask task) throws IOException {
+        //the file is closed by the region, or directly if the region header could not be read
+        try (RandomAccessFile regionFile = new RandomAccessFile(file, "r");
+             Region region = new Region(new FileRegionReader(regionFile))) {
+            region.setChunkCache(ChunkCache.none());//every chunk is read once
+            for (int index : region.getIndicesInFileOrder()) {
+                task.accept(region, index);
+            }
+        }
+    }
+
+    private static void accept(@Nullable ListTag<CompoundTag> tags, Predicate<CompoundTag> matcher, Consumer<CompoundTag> consumer) {
+        if(tags == null) {
+            return;
+        }
+        for (CompoundTag tag : tags) {
+            if(matcher.test(tag)) {
+                consumer.accept(tag);
+            }
+        }
+    }
+
+    /**
+     * A task run for a single chunk of a region, see {@link #scan(ChunkTask)}
+     */
+    @FunctionalInterface
+    public interface ChunkTask {
+
+        /**
+         * @param region the region holding the chunk, only valid during the scan of its file
+         * @param index the index of the chunk in the region, x is {@code index & 31} and z is {@code index >> 5}
+         * @throws IOException if the chunk could not be read, which fails the scan of the region file
+         */
+        void accept(Region region, int index) throws IOException;
+    }
+
+    /**
+     * Receives the progress of a scan.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called after a region file has been scanned, whether it succeeded or not.
+         * @param file the region file
+         * @param failure the exception that stopped the scan of the file, or null if it was scanned completely
+         * @param completed the number of region files scanned so far, including this one
+         * @param total the number of region files being scanned
+         */
+        void regionScanned(File file, @Nullable Exception failure, int completed, int total);
+    }
+}
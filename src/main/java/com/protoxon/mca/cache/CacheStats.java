@@ -0,0 +1,58 @@
+package com.protoxon.mca.cache;
+
+/**
+ * A snapshot of the counters of a {@link ChunkCache}.
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+
+    CacheStats(long hitCount, long missCount, long evictionCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    /**
+     * Gets the number of lookups that returned a cached chunk.
+     *
+     * @return hit count
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of lookups that did not find a cached chunk.
+     *
+     * @return miss count
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of chunks removed from the cache to stay within its bounds.
+     *
+     * @return eviction count
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the ratio of lookups that returned a cached chunk.
+     *
+     * @return hit rate between 0 and 1, or 1 if there were no lookups
+     */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + "}";
+    }
+}
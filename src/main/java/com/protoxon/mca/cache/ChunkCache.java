@@ -0,0 +1,94 @@
+package com.protoxon.mca.cache;
+
+import com.protoxon.mca.chunk.Chunk;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A cache of parsed chunks used by a {@link com.protoxon.mca.Region}.<p>
+ * Chunks are keyed by their index in the region, see {@link com.protoxon.mca.Region#getChunks()} for how the index is calculated.
+ * Implementations must be safe to use from multiple threads.
+ */
+public interface ChunkCache {
+
+    /**
+     * Returns a cache that keeps every chunk until the region is discarded.
+     *
+     * @return unbounded chunk cache
+     */
+    static ChunkCache unbounded() {
+        return new UnboundedChunkCache();
+    }
+
+    /**
+     * Returns a cache that keeps nothing, for one-pass scans where chunks are never fetched twice.
+     *
+     * @return chunk cache that never stores chunks
+     */
+    static ChunkCache none() {
+        return new NoopChunkCache();
+    }
+
+    /**
+     * Returns a cache holding at most the given number of chunks, evicting the least recently used chunk first.
+     *
+     * @param maxChunks max number of chunks to keep
+     * @return bounded chunk cache
+     */
+    static ChunkCache maxChunks(int maxChunks) {
+        return new LruChunkCache(maxChunks, chunk -> 1);
+    }
+
+    /**
+     * Returns a cache holding chunks up to the given estimated size, evicting the least recently used chunk first.<p>
+     * The size of a chunk is estimated from the size of its decompressed NBT, see {@link Chunk#getDecompressedSize()}.
+     *
+     * @param maxBytes max estimated size of all cached chunks in bytes
+     * @return bounded chunk cache
+     */
+    static ChunkCache maxBytes(long maxBytes) {
+        return new LruChunkCache(maxBytes, Chunk::getDecompressedSize);
+    }
+
+    /**
+     * Gets a chunk from the cache.
+     *
+     * @param index the index of the chunk in the region
+     * @return the cached chunk, or null if it is not cached
+     */
+    @Nullable Chunk get(int index);
+
+    /**
+     * Adds a chunk to the cache unless one is already cached for the index.
+     *
+     * @param index the index of the chunk in the region
+     * @param chunk the chunk to cache
+     * @return the chunk that is cached for the index, which is the given chunk unless another was cached first
+     */
+    Chunk putIfAbsent(int index, Chunk chunk);
+
+    /**
+     * Removes a chunk from the cache.
+     *
+     * @param index the index of the chunk in the region
+     */
+    void invalidate(int index);
+
+    /**
+     * Removes all chunks from the cache.
+     */
+    void clear();
+
+    /**
+     * Gets the number of chunks currently in the cache.
+     *
+     * @return number of cached chunks
+     */
+    int size();
+
+    /**
+     * Returns a snapshot of the hit, miss and eviction counters.
+     *
+     * @return cache statistics
+     */
+    CacheStats stats();
+}
@@ -0,0 +1,92 @@
+package com.protoxon.mca.cache;
+
+import com.protoxon.mca.chunk.Chunk;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * A chunk cache bounded by the total weight of its chunks, evicting the least recently used chunk first.<p>
+ * Access is synchronized, chunks are decompressed and parsed outside the lock by the region.
+ */
+final class LruChunkCache implements ChunkCache {
+
+    private final long maxWeight;
+    private final ToIntFunction<Chunk> weigher;
+    //access ordered, so iteration starts at the least recently used chunk
+    private final LinkedHashMap<Integer, Chunk> chunks = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    LruChunkCache(long maxWeight, ToIntFunction<Chunk> weigher) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("max cache size cannot be negative");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    @Override
+    public synchronized Chunk get(int index) {
+        Chunk chunk = chunks.get(index);
+        if (chunk != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return chunk;
+    }
+
+    @Override
+    public synchronized Chunk putIfAbsent(int index, Chunk chunk) {
+        Chunk existingChunk = chunks.get(index);
+        if (existingChunk != null) {
+            return existingChunk;
+        }
+        chunks.put(index, chunk);
+        weight += weigher.applyAsInt(chunk);
+        evict();
+        return chunk;
+    }
+
+    /**
+     * Removes the least recently used chunks until the cache is within its max weight.
+     */
+    private void evict() {
+        Iterator<Map.Entry<Integer, Chunk>> iterator = chunks.entrySet().iterator();
+        while (weight > maxWeight && iterator.hasNext()) {
+            Chunk chunk = iterator.next().getValue();
+            iterator.remove();
+            weight -= weigher.applyAsInt(chunk);
+            evictions++;
+        }
+    }
+
+    @Override
+    public synchronized void invalidate(int index) {
+        Chunk chunk = chunks.remove(index);
+        if (chunk != null) {
+            weight -= weigher.applyAsInt(chunk);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        chunks.clear();
+        weight = 0;
+    }
+
+    @Override
+    public synchronized int size() {
+        return chunks.size();
+    }
+
+    @Override
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions);
+    }
+}
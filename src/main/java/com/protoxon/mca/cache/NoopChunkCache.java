@@ -0,0 +1,39 @@
+package com.protoxon.mca.cache;
+
+import com.protoxon.mca.chunk.Chunk;
+
+import java.util.concurrent.atomic.LongAdder;
+
+final class NoopChunkCache implements ChunkCache {
+
+    private final LongAdder misses = new LongAdder();
+
+    @Override
+    public Chunk get(int index) {
+        misses.increment();
+        return null;
+    }
+
+    @Override
+    public Chunk putIfAbsent(int index, Chunk chunk) {
+        return chunk;
+    }
+
+    @Override
+    public void invalidate(int index) {
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    @Override
+    public int size() {
+        return 0;
+    }
+
+    @Override
+    public CacheStats stats() {
+        return new CacheStats(0, misses.sum(), 0);
+    }
+}
@@ -0,0 +1,50 @@
+package com.protoxon.mca.cache;
+
+import com.protoxon.mca.chunk.Chunk;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+final class UnboundedChunkCache implements ChunkCache {
+
+    private final ConcurrentHashMap<Integer, Chunk> chunks = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Override
+    public Chunk get(int index) {
+        Chunk chunk = chunks.get(index);
+        if (chunk != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return chunk;
+    }
+
+    @Override
+    public Chunk putIfAbsent(int index, Chunk chunk) {
+        Chunk existingChunk = chunks.putIfAbsent(index, chunk);
+        return existingChunk != null ? existingChunk : chunk;
+    }
+
+    @Override
+    public void invalidate(int index) {
+        chunks.remove(index);
+    }
+
+    @Override
+    public void clear() {
+        chunks.clear();
+    }
+
+    @Override
+    public int size() {
+        return chunks.size();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), 0);
+    }
+}
@@ -0,0 +1,21 @@
+package com.protoxon.mca.chunk;
+
+/**
+ * Receives blocks as primitive coordinates and a block state id, so iterating blocks does not create any objects.
+ * The id can be resolved with {@link BlockStateRegistry#get(int)} of the registry the blocks were iterated with.
+ *
+ * @see ChunkBase#forEachBlock(BlockConsumer)
+ */
+@FunctionalInterface
+public interface BlockConsumer {
+
+    /**
+     * Called for every block.
+     *
+     * @param x the world x-coordinate of the block
+     * @param y the world y-coordinate of the block
+     * @param z the world z-coordinate of the block
+     * @param stateId the id of the blocks state in the registry
+     */
+    void accept(int x, int y, int z, int stateId);
+}
@@ -0,0 +1,125 @@
+package com.protoxon.mca.chunk;
+
+import com.viaversion.nbt.tag.CompoundTag;
+import com.viaversion.nbt.tag.StringTag;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+/*
+ * Represents a block state, a block name combined with its property values
+ * block states are interned by a BlockStateRegistry, so there is one shared instance per distinct state
+ */
+public final class BlockState {
+
+    private final int id;
+    private final String name;
+    private final SortedMap<String, String> properties;
+
+    /**
+     * Constructs a BlockState, only called by {@link BlockStateRegistry}.
+     *
+     * @param id the id of the block state in its registry
+     * @param name the namespaced block name, e.g. minecraft:oak_log
+     * @param properties the unmodifiable property values sorted by property name
+     */
+    BlockState(int id, String name, SortedMap<String, String> properties) {
+        this.id = id;
+        this.name = name;
+        this.properties = properties;
+    }
+
+    /**
+     * Gets the id of the block state.<p>
+     * Ids are assigned in the order states are first seen, they are stable for the lifetime of the registry
+     * but not between runs, so they should not be persisted.
+     *
+     * @return the id of the block state in its registry
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the blocks name
+     *
+     * @return the namespaced block name, e.g. minecraft:oak_log
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the blocks properties.
+     *
+     * @return an unmodifiable map of property names to values, sorted by property name
+     */
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Gets the value of a single property.
+     *
+     * @param property the name of the property, e.g. axis
+     * @return the value of the property, or null if the block does not have the property
+     */
+    @Nullable
+    public String getProperty(String property) {
+        return properties.get(property);
+    }
+
+    /**
+     * Creates the palette entry for this block state, the format used in the block_states palette of a chunk section.
+     *
+     * @return a new CompoundTag holding the Name and, if there are any, the Properties of the block state
+     */
+    public CompoundTag toCompoundTag() {
+        CompoundTag tag = new CompoundTag();
+        tag.putString("Name", name);
+        if(!properties.isEmpty()) {
+            CompoundTag propertiesTag = new CompoundTag();
+            for(Map.Entry<String, String> property : properties.entrySet()) {
+                propertiesTag.put(property.getKey(), new StringTag(property.getValue()));
+            }
+            tag.put("Properties", propertiesTag);
+        }
+        return tag;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof BlockState)) return false;
+        BlockState that = (BlockState) o;
+        return name.equals(that.name) && properties.equals(that.properties);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * name.hashCode() + properties.hashCode();
+    }
+
+    /**
+     * Formats the block state the way it is written in commands.
+     *
+     * @return the block state as a string, e.g. minecraft:oak_log[axis=y]
+     */
+    @Override
+    public String toString() {
+        if(properties.isEmpty()) {
+            return name;
+        }
+        StringBuilder builder = new StringBuilder(name).append('[');
+        boolean first = true;
+        for(Map.Entry<String, String> property : properties.entrySet()) {
+            if(!first) {
+                builder.append(',');
+            }
+            builder.append(property.getKey()).append('=').append(property.getValue());
+            first = false;
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,141 @@
+package com.protoxon.mca.chunk;
+
+import com.viaversion.nbt.tag.CompoundTag;
+import com.viaversion.nbt.tag.ListTag;
+import com.viaversion.nbt.tag.Tag;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns {@link BlockState}s, so every distinct block state is represented by one shared instance with a stable int id.<p>
+ * Palettes of all chunks are resolved through the same registry, so a state id can stand in for a block state when
+ * iterating blocks, see {@link ChunkBase#forEachBlock(BlockConsumer)}. Registries are safe to use from multiple threads
+ * and only grow, a world rarely has more than a few thousand distinct block states.
+ */
+public final class BlockStateRegistry {
+
+    private static final BlockStateRegistry GLOBAL = new BlockStateRegistry();
+    private static final SortedMap<String, String> NO_PROPERTIES = Collections.unmodifiableSortedMap(new TreeMap<>());
+
+    //block states are their own keys, since equality ignores the id
+    private final ConcurrentHashMap<BlockState, BlockState> states = new ConcurrentHashMap<>();
+    //indexed by id, only grows, written under the registry lock and reassigned after every write to publish it
+    private volatile BlockState[] byId = new BlockState[256];
+    private int size;
+
+    /**
+     * Gets the registry shared by all chunks.
+     *
+     * @return the global registry
+     */
+    public static BlockStateRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Gets the block state of a palette entry, registering it if it has not been seen before.
+     *
+     * @param paletteEntry a palette entry holding the Name and optionally the Properties of a block state
+     * @return the interned block state
+     * @throws IllegalArgumentException if the palette entry has no Name
+     */
+    public BlockState intern(CompoundTag paletteEntry) {
+        Tag name = paletteEntry.get("Name");
+        if(name == null) {
+            throw new IllegalArgumentException("palette entry is missing a Name: " + paletteEntry);
+        }
+        CompoundTag propertiesTag = paletteEntry.getCompoundTag("Properties");
+        SortedMap<String, String> properties = NO_PROPERTIES;
+        if(propertiesTag != null && !propertiesTag.isEmpty()) {
+            properties = new TreeMap<>();
+            for(Map.Entry<String, Tag> property : propertiesTag.entrySet()) {
+                properties.put(property.getKey(), property.getValue().asRawString());
+            }
+        }
+        return lookup(name.asRawString(), properties);
+    }
+
+    /**
+     * Gets the block state with the given name and properties, registering it if it has not been seen before.
+     *
+     * @param name the namespaced block name, e.g. minecraft:oak_log
+     * @param properties the property values of the block state
+     * @return the interned block state
+     */
+    public BlockState intern(String name, Map<String, String> properties) {
+        return lookup(name, properties.isEmpty() ? NO_PROPERTIES : new TreeMap<>(properties));
+    }
+
+    //sorted is kept by the registry if the state is new, so it must not be modified afterwards
+    private BlockState lookup(String name, SortedMap<String, String> sorted) {
+        BlockState key = new BlockState(-1, name, sorted);
+        BlockState state = states.get(key);
+        if(state != null) {
+            return state;
+        }
+        synchronized(this) {
+            state = states.get(key);
+            if(state == null) {
+                BlockState[] byId = this.byId;
+                if(size == byId.length) {
+                    byId = Arrays.copyOf(byId, size * 2);
+                }
+                state = new BlockState(size, name, sorted.isEmpty() ? NO_PROPERTIES : Collections.unmodifiableSortedMap(sorted));
+                byId[size++] = state;
+                this.byId = byId;
+                states.put(state, state);
+            }
+            return state;
+        }
+    }
+
+    /**
+     * Resolves the entries of a block_states palette to their state ids.
+     *
+     * @param palette the palette of a chunk section
+     * @param ids an array to reuse if it is large enough, may be null
+     * @return an array whose first palette.size() entries hold the state id of the palette entry at the same index,
+     * the remaining entries are set to -1 so indices outside of the palette do not resolve to a stale state
+     */
+    public int[] getIds(ListTag<CompoundTag> palette, int[] ids) {
+        int size = palette.size();
+        if(ids == null || ids.length < size) {
+            ids = new int[Math.max(size, 16)];
+        }
+        for(int i = 0; i < size; i++) {
+            ids[i] = intern(palette.get(i)).getId();
+        }
+        Arrays.fill(ids, size, ids.length, -1);
+        return ids;
+    }
+
+    /**
+     * Gets the block state with the given id.
+     *
+     * @param id the id of the block state
+     * @return the block state
+     * @throws IllegalArgumentException if no block state has been registered with the id
+     */
+    public BlockState get(int id) {
+        BlockState[] byId = this.byId;
+        BlockState state = id >= 0 && id < byId.length ? byId[id] : null;
+        if(state == null) {
+            throw new IllegalArgumentException("unknown block state id " + id);
+        }
+        return state;
+    }
+
+    /**
+     * Gets the number of registered block states, ids range from 0 to size - 1.
+     *
+     * @return the number of registered block states
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -1,9 +1,12 @@
 package com.protoxon.mca.chunk;
 
+import com.viaversion.nbt.io.TagProjection;
 import com.viaversion.nbt.tag.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.function.Predicate;
 
 
 /**
@@ -27,7 +30,36 @@ public class Chunk extends ChunkBase {
      */
     public Chunk(int compressionID, byte[] compressedData) throws IOException {
         super(compressionID, compressedData);
-        chunk = new ChunkHandler(compressionID, compressedData).getHandler(getDataVersion().asInt());
+        chunk = new ChunkHandler(chunkNBT).getHandler(getDataVersion().asInt());
+    }
+
+    /*
+     * @param compressionID, the compression method used (usually Zlib)
+     * @param compressedData, a buffer holding the compressed chunk data, such as a slice of a memory mapped region file
+     */
+    public Chunk(int compressionID, ByteBuffer compressedData) throws IOException {
+        super(compressionID, compressedData);
+        chunk = new ChunkHandler(chunkNBT).getHandler(getDataVersion().asInt());
+    }
+
+    /*
+     * @param compressionID, the compression method used (usually Zlib)
+     * @param compressedData, a buffer holding the compressed chunk data
+     * @param lazy, whether to only create the tags of the chunk NBT once they are accessed
+     */
+    public Chunk(int compressionID, ByteBuffer compressedData, boolean lazy) throws IOException {
+        super(compressionID, compressedData, lazy);
+        chunk = new ChunkHandler(chunkNBT).getHandler(getDataVersion().asInt());
+    }
+
+    /*
+     * @param compressionID, the compression method used (usually Zlib)
+     * @param compressedData, a buffer holding the compressed chunk data
+     * @param projection, the tag paths to parse, must include DataVersion. Getters for skipped tags return null
+     */
+    public Chunk(int compressionID, ByteBuffer compressedData, TagProjection projection) throws IOException {
+        super(compressionID, compressedData, projection);
+        chunk = new ChunkHandler(chunkNBT).getHandler(getDataVersion().asInt());
     }
 
     @Override
@@ -65,6 +97,41 @@ public class Chunk extends ChunkBase {
         return chunk.getBlocks();
     }
 
+    @Override
+    public Block getBlockAt(int x, int y, int z) {
+        return chunk.getBlockAt(x, y, z);
+    }
+
+    @Override
+    public BlockState getBlockStateAt(int x, int y, int z) {
+        return chunk.getBlockStateAt(x, y, z);
+    }
+
+    @Override
+    public ArrayList<Block> findBlock(Predicate<CompoundTag> matcher, long sectionMask) {
+        return chunk.findBlock(matcher, sectionMask);
+    }
+
+    @Override
+    public int getSectionCount() {
+        return chunk.getSectionCount();
+    }
+
+    @Override
+    public boolean decodeSection(int section, SectionBuffer buffer) {
+        return chunk.decodeSection(section, buffer);
+    }
+
+    @Override
+    public void forEachPalette(PaletteConsumer consumer) {
+        chunk.forEachPalette(consumer);
+    }
+
+    @Override
+    public void forEachBlock(BlockStateRegistry registry, BlockConsumer consumer) {
+        chunk.forEachBlock(registry, consumer);
+    }
+
     @Override
     public ListTag<CompoundTag> getBlockEntities() {
         return chunk.getBlockEntities();
@@ -2,13 +2,15 @@ package com.protoxon.mca.chunk;
 
 import com.protoxon.mca.compression.Compression;
 import com.viaversion.nbt.io.NBTIO;
-import com.viaversion.nbt.limiter.TagLimiter;
+import com.viaversion.nbt.io.StringCache;
+import com.viaversion.nbt.io.TagProjection;
+import com.viaversion.nbt.io.TagReader;
 import com.viaversion.nbt.tag.*;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.function.Predicate;
 
 import static com.protoxon.mca.Region.getMCVersionFromDataVersion;
 
@@ -18,13 +20,52 @@ import static com.protoxon.mca.Region.getMCVersionFromDataVersion;
 public abstract class ChunkBase {
     public CompoundTag chunkNBT;
     public ChunkBase chunk;
+    //the size of the decompressed chunk NBT in bytes, 0 if the chunk was not created from compressed data
+    protected int decompressedSize;
+    //a section mask including every section, see sectionBit
+    public static final long ALL_SECTIONS = -1L;
+    //deduplicates repeated strings across all parsed chunks
+    private static volatile StringCache stringCache = StringCache.create(4096, 64);
 
     /*
      * @param compressionID, the compression method used (usually Zlib)
      * @param compressedData, the compressed chunk data
      */
     public ChunkBase(int compressionID, byte[] compressedData) throws IOException {
-        decompress(compressionID, compressedData);
+        decompress(compressionID, ByteBuffer.wrap(compressedData), TagProjection.all(), false);
+    }
+
+    /*
+     * @param compressionID, the compression method used (usually Zlib)
+     * @param compressedData, a buffer holding the compressed chunk data, such as a slice of a memory mapped region file
+     */
+    public ChunkBase(int compressionID, ByteBuffer compressedData) throws IOException {
+        decompress(compressionID, compressedData, TagProjection.all(), false);
+    }
+
+    /*
+     * @param compressionID, the compression method used (usually Zlib)
+     * @param compressedData, a buffer holding the compressed chunk data
+     * @param projection, the tag paths to parse, everything else in the chunk NBT is skipped
+     */
+    public ChunkBase(int compressionID, ByteBuffer compressedData, TagProjection projection) throws IOException {
+        decompress(compressionID, compressedData, projection, false);
+    }
+
+    /*
+     * @param compressionID, the compression method used (usually Zlib)
+     * @param compressedData, a buffer holding the compressed chunk data
+     * @param lazy, whether to only create the tags of the chunk NBT once they are accessed
+     */
+    public ChunkBase(int compressionID, ByteBuffer compressedData, boolean lazy) throws IOException {
+        decompress(compressionID, compressedData, TagProjection.all(), lazy);
+    }
+
+    /*
+     * @param chunkNBT, the already decompressed chunk NBT
+     */
+    public ChunkBase(CompoundTag chunkNBT) {
+        this.chunkNBT = chunkNBT;
     }
 
     /**
@@ -32,12 +73,15 @@ public abstract class ChunkBase {
      *
      * @param compressionID the id of compression used (e.g., zlib, gzip)
      * @param compressedData the data to be decompressed
+     * @param projection the tag paths to parse
+     * @param lazy whether to parse the chunk NBT lazily
      * @throws IOException if an I/O error occurs during decompression
      */
-    private void decompress(int compressionID, byte[] compressedData) throws IOException {
-        Compression compression = new Compression();
-        byte[] decompressedData = compression.decompress(compressionID, compressedData);
-        chunkNBT = convertToCompoundTag(decompressedData);
+    private void decompress(int compressionID, ByteBuffer compressedData, TagProjection projection, boolean lazy) throws IOException {
+        //decompress into the threads scratch buffer, it is only valid until the next decompression so parse it straight away
+        ByteBuffer decompressedData = Compression.decompressToBuffer(compressionID, compressedData);
+        decompressedSize = decompressedData.remaining();
+        chunkNBT = convertToCompoundTag(decompressedData, projection, lazy);
     }
 
     /**
@@ -45,14 +89,43 @@ public abstract class ChunkBase {
      * Uses NBTIO provided by ViaNbt
      * @see com.viaversion.nbt.io.NBTIO
      *
-     * @param chunkData the byte array containing the chunk data to convert
+     * @param chunkData the buffer containing the chunk data to convert
+     * @param projection the tag paths to parse, anything else is skipped
+     * @param lazy whether to only create tags once they are accessed, the lazy reader copies the data so the buffer can be reused
      * @return a CompoundTag representing the converted chunk data
      * @throws IOException if an I/O error occurs during the conversion process
      */
-    private CompoundTag convertToCompoundTag(byte[] chunkData) throws IOException {
-        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(chunkData);
-        DataInputStream dataInputStream = new DataInputStream(byteArrayInputStream);
-        return NBTIO.readTag(dataInputStream, TagLimiter.create(999999999, 999999999), true, CompoundTag.class);
+    private CompoundTag convertToCompoundTag(ByteBuffer chunkData, TagProjection projection, boolean lazy) throws IOException {
+        //parse straight off the buffer, heap or direct, without wrapping it in a stream
+        //region files are local data, so skip the tag limiter accounting
+        TagReader<CompoundTag> reader = NBTIO.reader(CompoundTag.class)
+                .named()
+                .trusted()
+                .stringCache(stringCache)
+                .projection(projection);
+        if(lazy) {
+            reader.lazy();
+        }
+        return reader.read(chunkData);
+    }
+
+    /**
+     * Sets the string cache shared by all chunks parsed afterwards.<p>
+     * Keys such as "Name" or "block_states" and block names such as "minecraft:stone" repeat in every chunk,
+     * the cache makes them share one String instance, which matters when many chunks are kept in memory
+     * @param stringCache the cache to use, or {@link StringCache#none()} to disable deduplication
+     */
+    public static void setStringCache(StringCache stringCache) {
+        ChunkBase.stringCache = stringCache;
+    }
+
+    /**
+     * Gets the size of the decompressed chunk NBT.<p>
+     * Used as an estimate of how much memory the parsed chunk retains.
+     * @return the size in bytes, or 0 if the chunk was not created from compressed data
+     */
+    public int getDecompressedSize() {
+        return decompressedSize;
     }
 
     /**
@@ -136,6 +209,29 @@ public abstract class ChunkBase {
      */
     public abstract ArrayList<Block> getBlocks();
 
+    /**
+     * Passes every block in the chunk to the consumer as world coordinates and a block state id, without creating any Block objects.<p>
+     * Block states are resolved through the {@link BlockStateRegistry#global() global registry}
+     * <pre>{@code
+     * chunk.forEachBlock((x, y, z, stateId) -> {
+     *    BlockState state = BlockStateRegistry.global().get(stateId);
+     * });
+     * }</pre>
+     *
+     * @param consumer the consumer receiving the blocks, in section order then y, z, x increasing
+     */
+    public void forEachBlock(BlockConsumer consumer) {
+        forEachBlock(BlockStateRegistry.global(), consumer);
+    }
+
+    /**
+     * Passes every block in the chunk to the consumer as world coordinates and a block state id, without creating any Block objects.
+     *
+     * @param registry the registry to resolve the block states of the chunks palettes with
+     * @param consumer the consumer receiving the blocks, in section order then y, z, x increasing
+     */
+    public abstract void forEachBlock(BlockStateRegistry registry, BlockConsumer consumer);
+
     /**
      * Retrieves all block entities present in the chunk.
      * <br><br>
@@ -180,6 +276,113 @@ public abstract class ChunkBase {
         return null;
     }
 
+    /**
+     * Retrieves all blocks in the chunk with the given name, regardless of their properties.
+     *
+     * @param name the namespaced block name, e.g. minecraft:spawner
+     * @return the matching blocks, empty if there are none
+     */
+    public ArrayList<Block> findBlock(String name) {
+        return findBlock(matchesName(name));
+    }
+
+    /**
+     * Retrieves all blocks in the chunk with the same name and properties as the given block.
+     *
+     * @param block the block to search for, its position is ignored
+     * @return the matching blocks, empty if there are none
+     */
+    public ArrayList<Block> findBlock(Block block) {
+        BlockState state = BlockStateRegistry.global().intern(block.getBlockState());
+        return findBlock(entry -> BlockStateRegistry.global().intern(entry) == state);
+    }
+
+    /**
+     * Retrieves all blocks in the chunk whose palette entry matches.<p>
+     * The matcher is only called once per palette entry of each section. Sections without a matching entry are skipped
+     * without unpacking their block data, so searching for rare blocks is cheap.
+     *
+     * @param matcher tests a palette entry, a CompoundTag holding the Name and Properties of a block state
+     * @return the matching blocks, empty if there are none
+     */
+    public ArrayList<Block> findBlock(Predicate<CompoundTag> matcher) {
+        return findBlock(matcher, ALL_SECTIONS);
+    }
+
+    /**
+     * Retrieves all blocks in the given sections of the chunk whose palette entry matches.<p>
+     * Sections outside of the mask are skipped entirely, which is used to only search the sections an index marked as candidates.
+     *
+     * @param matcher tests a palette entry, a CompoundTag holding the Name and Properties of a block state
+     * @param sectionMask the sections to search, built with {@link #sectionBit(int)}
+     * @return the matching blocks, empty if there are none
+     */
+    public abstract ArrayList<Block> findBlock(Predicate<CompoundTag> matcher, long sectionMask);
+
+    /**
+     * Gets the number of sections stored in the chunk, including sections without block states.
+     *
+     * @return the number of sections, the upper bound for {@link #decodeSection(int, SectionBuffer)}
+     */
+    public abstract int getSectionCount();
+
+    /**
+     * Decodes the block states of one section into a reusable buffer.<p>
+     * Iterating sections one at a time keeps only a single section decoded, see {@link SectionBuffer}.
+     *
+     * @param section the position of the section in the sections list, from 0 to {@link #getSectionCount()} - 1
+     * @param buffer the buffer to decode into
+     * @return true if the section was decoded, false if it has no block states and the buffer was left unchanged
+     */
+    public abstract boolean decodeSection(int section, SectionBuffer buffer);
+
+    /**
+     * Passes the block_states palette of every section to the consumer, without unpacking any block data.<p>
+     * Useful for finding out which block states a chunk contains, such as for building an index.
+     *
+     * @param consumer receives the y-coordinate and palette of each section that has block states
+     */
+    public abstract void forEachPalette(PaletteConsumer consumer);
+
+    /**
+     * Creates a palette entry matcher for a block name, regardless of the block properties.
+     *
+     * @param name the namespaced block name, e.g. minecraft:spawner
+     * @return a matcher for {@link #findBlock(Predicate)}
+     */
+    public static Predicate<CompoundTag> matchesName(String name) {
+        return entry -> {
+            Tag entryName = entry.get("Name");
+            return entryName != null && name.equals(entryName.asRawString());
+        };
+    }
+
+    /**
+     * Gets the bit representing a section in a section mask.<p>
+     * Section y-coordinate Y maps to bit Y + 32, so the default world height of sections -4 to 19 fits without overlap.
+     * Sections 64 apart share a bit, which can only cause extra sections to be searched, never fewer.
+     *
+     * @param sectionY the y-coordinate of the section, the block y-coordinate shifted right by 4
+     * @return a mask with only the bit of the section set
+     */
+    public static long sectionBit(int sectionY) {
+        return 1L << (sectionY + 32);//shifts only use the lowest 6 bits, so this wraps around instead of overflowing
+    }
+
+    /**
+     * Retrieves the block state at the specified coordinates (x, y, z) within this chunk.<p>
+     * Cheaper than {@link #getBlockAt(int, int, int)} when only the state is needed, as no Block is created.
+     *
+     * @param x the x-coordinate of the block
+     * @param y the y-coordinate of the block
+     * @param z the z-coordinate of the block
+     * @return the interned block state at the specified coordinates, or null if no block is found
+     */
+    public BlockState getBlockStateAt(int x, int y, int z) {
+        Block block = getBlockAt(x, y, z);
+        return block == null ? null : BlockStateRegistry.global().intern(block.getBlockState());
+    }
+
     /**
      * gets a list of entities present in the chunk
      * <br><br>
@@ -1,26 +1,24 @@
 package com.protoxon.mca.chunk;
 
 import com.protoxon.mca.chunk.versions.V1_21;
-
-import java.io.IOException;
+import com.viaversion.nbt.tag.CompoundTag;
 
 public class ChunkHandler {
 
-    int compressionType;
-    byte[] compressedData;
+    //the chunk NBT is decompressed once by the Chunk and shared with the version handler
+    CompoundTag chunkNBT;
 
-    public ChunkHandler(int compressionType, byte[] compressedData) {
-        this.compressionType = compressionType;
-        this.compressedData = compressedData;
+    public ChunkHandler(CompoundTag chunkNBT) {
+        this.chunkNBT = chunkNBT;
     }
 
-    public ChunkBase getHandler(int dataVersion) throws IOException {
+    public ChunkBase getHandler(int dataVersion) {
         if(dataVersion == 3953) {
-            return new V1_21(compressionType, compressedData);
+            return new V1_21(chunkNBT);
         } else if (dataVersion == 100) {
 
         }
         //return newest chunk version if no data version matched
-        return new V1_21(compressionType, compressedData);
+        return new V1_21(chunkNBT);
     }
 }
@@ -0,0 +1,21 @@
+package com.protoxon.mca.chunk;
+
+import com.viaversion.nbt.tag.CompoundTag;
+import com.viaversion.nbt.tag.ListTag;
+
+/**
+ * Receives the block_states palette of a chunk section.
+ *
+ * @see ChunkBase#forEachPalette(PaletteConsumer)
+ */
+@FunctionalInterface
+public interface PaletteConsumer {
+
+    /**
+     * Called for every section that has block states.
+     *
+     * @param sectionY the y-coordinate of the section, the block y-coordinate shifted right by 4
+     * @param palette the palette of the section, entries hold the Name and Properties of a block state
+     */
+    void accept(int sectionY, ListTag<CompoundTag> palette);
+}
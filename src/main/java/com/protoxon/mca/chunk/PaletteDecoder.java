@@ -0,0 +1,321 @@
+package com.protoxon.mca.chunk;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Unpacks the palette indices of a chunk section.
+ * <p>
+ * Since 1.16 the {@code data} long array of a section stores its indices without spanning longs: every long holds
+ * {@code 64 / bitsPerIndex} indices starting at the lowest bits, the remaining high bits are padding. Entries are ordered
+ * by y, then z, then x, so the index of the block at section relative coordinates is {@code (y << 8) | (z << 4) | x}.
+ * <p>
+ * The decoder writes into arrays supplied by the caller and does not allocate, so a single {@code short[4096]} can be
+ * reused for every section of a scan and the palette only has to be looked at once per distinct index.
+ * See <a href="https://minecraft.wiki/w/Chunk_format#Block_states">Block states</a> for more info
+ */
+public final class PaletteDecoder {
+
+    /**
+     * The number of blocks in a chunk section.
+     */
+    public static final int SECTION_VOLUME = 4096;
+
+    /**
+     * The smallest number of bits per index used for block states.
+     */
+    public static final int MIN_BLOCK_STATE_BITS = 4;
+
+    private static final long[] MASKS = new long[33];
+
+    static {
+        for(int bits = 0; bits < MASKS.length; bits++) {
+            MASKS[bits] = (1L << bits) - 1;
+        }
+    }
+
+    private PaletteDecoder() {
+    }
+
+    /**
+     * Calculates the number of bits per index used to store block states with a palette of the given size.
+     *
+     * @param paletteSize the number of entries in the palette
+     * @return the number of bits per index, at least {@link #MIN_BLOCK_STATE_BITS}
+     */
+    public static int bitsPerIndex(int paletteSize) {
+        if(paletteSize <= 1) {
+            return MIN_BLOCK_STATE_BITS;
+        }
+        return Math.max(MIN_BLOCK_STATE_BITS, 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+    }
+
+    /**
+     * Calculates the number of longs needed to store the given number of indices.
+     *
+     * @param bitsPerIndex the number of bits per index
+     * @param count the number of indices
+     * @return the number of longs in the data array
+     */
+    public static int dataLength(int bitsPerIndex, int count) {
+        int perLong = 64 / bitsPerIndex;
+        return (count + perLong - 1) / perLong;
+    }
+
+    /**
+     * Unpacks the block state indices of a section.
+     * <br><br>
+     * Sections with a single entry palette have no data array, in that case every index is 0.
+     *
+     * @param data the packed data array of the section, or null if the section has a single block state
+     * @param paletteSize the number of entries in the palette
+     * @param out the array to write the {@link #SECTION_VOLUME} indices to
+     * @throws IllegalArgumentException if the data array is too short for the palette size or out is too small
+     */
+    public static void decodeBlockStates(@Nullable long[] data, int paletteSize, short[] out) {
+        if(data == null || paletteSize <= 1) {
+            checkOut(out.length, SECTION_VOLUME);
+            Arrays.fill(out, 0, SECTION_VOLUME, (short) 0);
+            return;
+        }
+        decode(data, bitsPerIndex(paletteSize), SECTION_VOLUME, out);
+    }
+
+    /**
+     * Unpacks the block state indices of a section.
+     * <br><br>
+     * Sections with a single entry palette have no data array, in that case every index is 0.
+     *
+     * @param data the packed data array of the section, or null if the section has a single block state
+     * @param paletteSize the number of entries in the palette
+     * @param out the array to write the {@link #SECTION_VOLUME} indices to
+     * @throws IllegalArgumentException if the data array is too short for the palette size or out is too small
+     */
+    public static void decodeBlockStates(@Nullable long[] data, int paletteSize, int[] out) {
+        if(data == null || paletteSize <= 1) {
+            checkOut(out.length, SECTION_VOLUME);
+            Arrays.fill(out, 0, SECTION_VOLUME, 0);
+            return;
+        }
+        decode(data, bitsPerIndex(paletteSize), SECTION_VOLUME, out);
+    }
+
+    /**
+     * Unpacks the first count indices of a data array.
+     * <br><br>
+     * Indices wider than 16 bits are truncated, use {@link #decode(long[], int, int, int[])} for those.
+     *
+     * @param data the packed data array
+     * @param bitsPerIndex the number of bits per index, from 1 to 16
+     * @param count the number of indices to unpack, padding after them is ignored
+     * @param out the array to write the indices to
+     * @throws IllegalArgumentException if the data array is too short or out is too small
+     */
+    public static void decode(long[] data, int bitsPerIndex, int count, short[] out) {
+        check(data, bitsPerIndex, 16, count, out.length);
+        switch(bitsPerIndex) {
+            case 4:
+                decode4(data, count, out);
+                break;
+            case 8:
+                decode8(data, count, out);
+                break;
+            default:
+                decodeGeneric(data, bitsPerIndex, count, out);
+        }
+    }
+
+    /**
+     * Unpacks the first count indices of a data array.
+     *
+     * @param data the packed data array
+     * @param bitsPerIndex the number of bits per index, from 1 to 32
+     * @param count the number of indices to unpack, padding after them is ignored
+     * @param out the array to write the indices to
+     * @throws IllegalArgumentException if the data array is too short or out is too small
+     */
+    public static void decode(long[] data, int bitsPerIndex, int count, int[] out) {
+        check(data, bitsPerIndex, 32, count, out.length);
+        switch(bitsPerIndex) {
+            case 4:
+                decode4(data, count, out);
+                break;
+            case 8:
+                decode8(data, count, out);
+                break;
+            default:
+                decodeGeneric(data, bitsPerIndex, count, out);
+        }
+    }
+
+    /**
+     * Reads a single index from a data array without unpacking the rest.
+     *
+     * @param data the packed data array
+     * @param bitsPerIndex the number of bits per index, from 1 to 32
+     * @param index the position of the index, for block states {@code (y << 8) | (z << 4) | x}
+     * @return the palette index stored at the position
+     */
+    public static int get(long[] data, int bitsPerIndex, int index) {
+        int perLong = 64 / bitsPerIndex;
+        int longIndex = index / perLong;
+        int shift = (index - longIndex * perLong) * bitsPerIndex;
+        return (int) ((data[longIndex] >>> shift) & MASKS[bitsPerIndex]);
+    }
+
+    //------------------------------private utility methods------------------------------\\
+    private static void check(long[] data, int bitsPerIndex, int maxBits, int count, int outLength) {
+        if(bitsPerIndex < 1 || bitsPerIndex > maxBits) {
+            throw new IllegalArgumentException("Bits per index must be between 1 and " + maxBits + ", got " + bitsPerIndex);
+        }
+        checkOut(outLength, count);
+        int required = dataLength(bitsPerIndex, count);
+        if(data.length < required) {
+            throw new IllegalArgumentException("Data array too short for " + count + " indices with " + bitsPerIndex
+                    + " bits each, expected " + required + " longs but got " + data.length);
+        }
+    }
+
+    private static void checkOut(int outLength, int count) {
+        if(outLength < count) {
+            throw new IllegalArgumentException("Output array too small, expected " + count + " entries but got " + outLength);
+        }
+    }
+
+    //4 bits per index, 16 indices per long, the most common width since it covers palettes of up to 16 block states
+    private static void decode4(long[] data, int count, short[] out) {
+        int full = count >>> 4;
+        int o = 0;
+        for(int i = 0; i < full; i++, o += 16) {
+            long v = data[i];
+            out[o] = (short) (v & 0xF);
+            out[o + 1] = (short) ((v >>> 4) & 0xF);
+            out[o + 2] = (short) ((v >>> 8) & 0xF);
+            out[o + 3] = (short) ((v >>> 12) & 0xF);
+            out[o + 4] = (short) ((v >>> 16) & 0xF);
+            out[o + 5] = (short) ((v >>> 20) & 0xF);
+            out[o + 6] = (short) ((v >>> 24) & 0xF);
+            out[o + 7] = (short) ((v >>> 28) & 0xF);
+            out[o + 8] = (short) ((v >>> 32) & 0xF);
+            out[o + 9] = (short) ((v >>> 36) & 0xF);
+            out[o + 10] = (short) ((v >>> 40) & 0xF);
+            out[o + 11] = (short) ((v >>> 44) & 0xF);
+            out[o + 12] = (short) ((v >>> 48) & 0xF);
+            out[o + 13] = (short) ((v >>> 52) & 0xF);
+            out[o + 14] = (short) ((v >>> 56) & 0xF);
+            out[o + 15] = (short) (v >>> 60);
+        }
+        decodeTail(data, 4, full, o, count, out);
+    }
+
+    private static void decode4(long[] data, int count, int[] out) {
+        int full = count >>> 4;
+        int o = 0;
+        for(int i = 0; i < full; i++, o += 16) {
+            long v = data[i];
+            out[o] = (int) (v & 0xF);
+            out[o + 1] = (int) ((v >>> 4) & 0xF);
+            out[o + 2] = (int) ((v >>> 8) & 0xF);
+            out[o + 3] = (int) ((v >>> 12) & 0xF);
+            out[o + 4] = (int) ((v >>> 16) & 0xF);
+            out[o + 5] = (int) ((v >>> 20) & 0xF);
+            out[o + 6] = (int) ((v >>> 24) & 0xF);
+            out[o + 7] = (int) ((v >>> 28) & 0xF);
+            out[o + 8] = (int) ((v >>> 32) & 0xF);
+            out[o + 9] = (int) ((v >>> 36) & 0xF);
+            out[o + 10] = (int) ((v >>> 40) & 0xF);
+            out[o + 11] = (int) ((v >>> 44) & 0xF);
+            out[o + 12] = (int) ((v >>> 48) & 0xF);
+            out[o + 13] = (int) ((v >>> 52) & 0xF);
+            out[o + 14] = (int) ((v >>> 56) & 0xF);
+            out[o + 15] = (int) (v >>> 60);
+        }
+        decodeTail(data, 4, full, o, count, out);
+    }
+
+    //8 bits per index, 8 indices per long
+    private static void decode8(long[] data, int count, short[] out) {
+        int full = count >>> 3;
+        int o = 0;
+        for(int i = 0; i < full; i++, o += 8) {
+            long v = data[i];
+            out[o] = (short) (v & 0xFF);
+            out[o + 1] = (short) ((v >>> 8) & 0xFF);
+            out[o + 2] = (short) ((v >>> 16) & 0xFF);
+            out[o + 3] = (short) ((v >>> 24) & 0xFF);
+            out[o + 4] = (short) ((v >>> 32) & 0xFF);
+            out[o + 5] = (short) ((v >>> 40) & 0xFF);
+            out[o + 6] = (short) ((v >>> 48) & 0xFF);
+            out[o + 7] = (short) (v >>> 56);
+        }
+        decodeTail(data, 8, full, o, count, out);
+    }
+
+    private static void decode8(long[] data, int count, int[] out) {
+        int full = count >>> 3;
+        int o = 0;
+        for(int i = 0; i < full; i++, o += 8) {
+            long v = data[i];
+            out[o] = (int) (v & 0xFF);
+            out[o + 1] = (int) ((v >>> 8) & 0xFF);
+            out[o + 2] = (int) ((v >>> 16) & 0xFF);
+            out[o + 3] = (int) ((v >>> 24) & 0xFF);
+            out[o + 4] = (int) ((v >>> 32) & 0xFF);
+            out[o + 5] = (int) ((v >>> 40) & 0xFF);
+            out[o + 6] = (int) ((v >>> 48) & 0xFF);
+            out[o + 7] = (int) (v >>> 56);
+        }
+        decodeTail(data, 8, full, o, count, out);
+    }
+
+    //any other width, the inner loop has a fixed trip count per long so it only checks count once per long
+    private static void decodeGeneric(long[] data, int bitsPerIndex, int count, short[] out) {
+        int perLong = 64 / bitsPerIndex;
+        int full = count / perLong;
+        long mask = MASKS[bitsPerIndex];
+        int o = 0;
+        for(int i = 0; i < full; i++) {
+            long v = data[i];
+            for(int j = 0; j < perLong; j++, v >>>= bitsPerIndex) {
+                out[o++] = (short) (v & mask);
+            }
+        }
+        decodeTail(data, bitsPerIndex, full, o, count, out);
+    }
+
+    private static void decodeGeneric(long[] data, int bitsPerIndex, int count, int[] out) {
+        int perLong = 64 / bitsPerIndex;
+        int full = count / perLong;
+        long mask = MASKS[bitsPerIndex];
+        int o = 0;
+        for(int i = 0; i < full; i++) {
+            long v = data[i];
+            for(int j = 0; j < perLong; j++, v >>>= bitsPerIndex) {
+                out[o++] = (int) (v & mask);
+            }
+        }
+        decodeTail(data, bitsPerIndex, full, o, count, out);
+    }
+
+    //unpacks the indices of the last, partially used long
+    private static void decodeTail(long[] data, int bitsPerIndex, int longIndex, int o, int count, short[] out) {
+        if(o < count) {
+            long v = data[longIndex];
+            long mask = MASKS[bitsPerIndex];
+            for(; o < count; o++, v >>>= bitsPerIndex) {
+                out[o] = (short) (v & mask);
+            }
+        }
+    }
+
+    private static void decodeTail(long[] data, int bitsPerIndex, int longIndex, int o, int count, int[] out) {
+        if(o < count) {
+            long v = data[longIndex];
+            long mask = MASKS[bitsPerIndex];
+            for(; o < count; o++, v >>>= bitsPerIndex) {
+                out[o] = (int) (v & mask);
+            }
+        }
+    }
+}
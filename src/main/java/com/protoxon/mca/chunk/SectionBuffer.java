@@ -0,0 +1,73 @@
+package com.protoxon.mca.chunk;
+
+import com.viaversion.nbt.tag.CompoundTag;
+import com.viaversion.nbt.tag.ListTag;
+
+/**
+ * A reusable buffer holding the decoded block states of one chunk section.<p>
+ * Filled by {@link ChunkBase#decodeSection(int, SectionBuffer)}, the same buffer can be used for every section of every chunk,
+ * so iterating blocks section by section does not allocate per section. A buffer must only be used by one thread at a time.
+ */
+public final class SectionBuffer {
+
+    final short[] indices = new short[PaletteDecoder.SECTION_VOLUME];
+    ListTag<CompoundTag> palette;
+    int sectionY;
+
+    /**
+     * Gets the y-coordinate of the decoded section.
+     *
+     * @return the section y-coordinate, the block y-coordinate shifted right by 4
+     */
+    public int getSectionY() {
+        return sectionY;
+    }
+
+    /**
+     * Gets the palette index of a block in the decoded section.
+     *
+     * @param index the position of the block, {@code (y << 8) | (z << 4) | x} with section relative coordinates
+     * @return the index of the blocks entry in the palette
+     */
+    public int getPaletteIndex(int index) {
+        return indices[index];
+    }
+
+    /**
+     * Gets the palette entry of a block in the decoded section.
+     *
+     * @param index the position of the block, {@code (y << 8) | (z << 4) | x} with section relative coordinates
+     * @return the palette entry holding the Name and Properties of the blocks state
+     */
+    public CompoundTag getBlockState(int index) {
+        return palette.get(indices[index]);
+    }
+
+    /**
+     * Gets the palette of the decoded section.
+     *
+     * @return the palette of the section
+     */
+    public ListTag<CompoundTag> getPalette() {
+        return palette;
+    }
+
+    /**
+     * Drops the reference to the palette of the last decoded section, so the buffer does not keep its chunk alive.
+     */
+    public void clear() {
+        palette = null;
+    }
+
+    /*
+     * Fills the buffer, used by the chunk version classes
+     * @param sectionY, the y-coordinate of the section
+     * @param palette, the palette of the section, not empty
+     * @param data, the packed data array, or null for a single block state section
+     */
+    public void decode(int sectionY, ListTag<CompoundTag> palette, long[] data) {
+        PaletteDecoder.decodeBlockStates(data, palette.size(), indices);
+        this.palette = palette;
+        this.sectionY = sectionY;
+    }
+}
@@ -2,21 +2,39 @@ package com.protoxon.mca.chunk.versions;
 
 import com.protoxon.mca.Main;
 import com.protoxon.mca.chunk.Block;
+import com.protoxon.mca.chunk.BlockConsumer;
+import com.protoxon.mca.chunk.BlockState;
+import com.protoxon.mca.chunk.BlockStateRegistry;
 import com.protoxon.mca.chunk.ChunkBase;
+import com.protoxon.mca.chunk.PaletteConsumer;
+import com.protoxon.mca.chunk.PaletteDecoder;
+import com.protoxon.mca.chunk.SectionBuffer;
 import com.viaversion.nbt.tag.*;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.function.Predicate;
 
 @SuppressWarnings({"unchecked"})
 public class V1_21 extends ChunkBase {
+    //maps section y-coordinates to sections for block lookups, built on first use
+    private volatile SectionIndex sectionIndex;
+
     public V1_21(int compressionID, byte[] compressedData) throws IOException {
         super(compressionID, compressedData);
-        loadSections();
         //System.out.println(chunkNBT);
     }
+
+    /*
+     * The section objects are only created once they are needed, see loadSectionsIfNeeded,
+     * so reading a few fields of a lazy or projected chunk does not parse its sections
+     */
+    public V1_21(CompoundTag chunkNBT) {
+        super(chunkNBT);
+    }
     public byte[] saveChunk() throws IOException {
+        loadSectionsIfNeeded();
         ListTag<CompoundTag> sectionsOut = new ListTag<>();
         for(com.protoxon.mca.chunk.section.versions.V1_21 section : sections) {
             section.refreshBlockStates();//recalculate the b  lock states
@@ -47,6 +65,15 @@ public class V1_21 extends ChunkBase {
         sections = getSections();
     }
 
+    /**
+     * Creates the section objects from the section NBT on first use.
+     */
+    private void loadSectionsIfNeeded() {
+        if(sections == null) {
+            loadSections();
+        }
+    }
+
     @Override
     public IntTag getXPos() {
         return (IntTag) chunkNBT.get("xPos");
@@ -71,7 +98,9 @@ public class V1_21 extends ChunkBase {
     public ArrayList<com.protoxon.mca.chunk.section.versions.V1_21> getSections() {
         ArrayList<com.protoxon.mca.chunk.section.versions.V1_21> sectionsOut = new ArrayList<>();
         ListTag<CompoundTag> sections = (ListTag<CompoundTag>) chunkNBT.get("sections");
-        assert sections != null;
+        if(sections == null) {//the sections were not parsed, e.g. they were left out of a projection
+            return sectionsOut;
+        }
         for(CompoundTag section : sections) {
             sectionsOut.add(new com.protoxon.mca.chunk.section.versions.V1_21(section, getXPos().asInt(), getZPos().asInt()));
         }
@@ -84,37 +113,168 @@ public class V1_21 extends ChunkBase {
 
     @Override
     public ArrayList<Block> getBlocks() {
-        ArrayList<Block> blocks = new ArrayList<>(382);
-        int x = getXPos().asInt();
-        int z = getZPos().asInt();
         ListTag<CompoundTag> sections = (ListTag<CompoundTag>) chunkNBT.get("sections");
+        if(sections == null) {//the sections were not parsed, e.g. they were left out of a projection
+            return new ArrayList<>(0);
+        }
+        ArrayList<Block> blocks = new ArrayList<>(sections.size() * PaletteDecoder.SECTION_VOLUME);
+        int x = getXPos().asInt() << 4;
+        int z = getZPos().asInt() << 4;
+        short[] indices = new short[PaletteDecoder.SECTION_VOLUME];//reused for every section
         for (CompoundTag section : sections) {
-            byte y = (byte) section.get("Y").getValue();
-            CompoundTag blockStates = (CompoundTag) section.get("block_states");
-            if(blockStates == null) {
+            CompoundTag blockStates = section.getCompoundTag("block_states");
+            NumberTag sectionY = section.getNumberTag("Y");
+            if(blockStates == null || sectionY == null) {
                 continue;
             }
 
             ListTag<CompoundTag> palette = (ListTag<CompoundTag>) blockStates.get("palette");
+            if(palette == null || palette.isEmpty()) {
+                continue;
+            }
             LongArrayTag data = (LongArrayTag) blockStates.get("data");
+            PaletteDecoder.decodeBlockStates(data == null ? null : data.getValue(), palette.size(), indices);
+
+            int y = sectionY.asInt() << 4;
+            for(int i = 0; i < PaletteDecoder.SECTION_VOLUME; i++) {
+                blocks.add(new Block(palette.get(indices[i]), x + (i & 15), y + (i >>> 8), z + ((i >>> 4) & 15)));
+            }
+        }
+        return blocks;
+    }
+
+    @Override
+    public void forEachBlock(BlockStateRegistry registry, BlockConsumer consumer) {
+        ListTag<CompoundTag> sections = (ListTag<CompoundTag>) chunkNBT.get("sections");
+        if(sections == null) {
+            return;
+        }
+        int x = getXPos().asInt() << 4;
+        int z = getZPos().asInt() << 4;
+        short[] indices = new short[PaletteDecoder.SECTION_VOLUME];
+        int[] stateIds = null;
+        for (CompoundTag section : sections) {
+            CompoundTag blockStates = section.getCompoundTag("block_states");
+            NumberTag sectionY = section.getNumberTag("Y");
+            if(blockStates == null || sectionY == null) {
+                continue;
+            }
+
+            ListTag<CompoundTag> palette = (ListTag<CompoundTag>) blockStates.get("palette");
+            if(palette == null || palette.isEmpty()) {
+                continue;
+            }
+            stateIds = registry.getIds(palette, stateIds);//resolve the palette once per section instead of once per block
+            LongArrayTag data = (LongArrayTag) blockStates.get("data");
+            PaletteDecoder.decodeBlockStates(data == null ? null : data.getValue(), palette.size(), indices);
+
+            int y = sectionY.asInt() << 4;
+            for(int i = 0; i < PaletteDecoder.SECTION_VOLUME; i++) {
+                consumer.accept(x + (i & 15), y + (i >>> 8), z + ((i >>> 4) & 15), stateIds[indices[i]]);
+            }
+        }
+    }
+
+    @Override
+    public int getSectionCount() {
+        ListTag<CompoundTag> sections = (ListTag<CompoundTag>) chunkNBT.get("sections");
+        return sections == null ? 0 : sections.size();
+    }
+
+    @Override
+    public boolean decodeSection(int section, SectionBuffer buffer) {
+        ListTag<CompoundTag> sections = (ListTag<CompoundTag>) chunkNBT.get("sections");
+        if(sections == null || section < 0 || section >= sections.size()) {
+            throw new IndexOutOfBoundsException("section " + section + " of " + getSectionCount());
+        }
+        CompoundTag sectionNBT = sections.get(section);
+        CompoundTag blockStates = sectionNBT.getCompoundTag("block_states");
+        NumberTag sectionY = sectionNBT.getNumberTag("Y");
+        if(blockStates == null || sectionY == null) {
+            return false;
+        }
+        ListTag<CompoundTag> palette = (ListTag<CompoundTag>) blockStates.get("palette");
+        if(palette == null || palette.isEmpty()) {
+            return false;
+        }
+        LongArrayTag data = (LongArrayTag) blockStates.get("data");
+        buffer.decode(sectionY.asInt(), palette, data == null ? null : data.getValue());
+        return true;
+    }
+
+    @Override
+    public void forEachPalette(PaletteConsumer consumer) {
+        ListTag<CompoundTag> sections = (ListTag<CompoundTag>) chunkNBT.get("sections");
+        if(sections == null) {
+            return;
+        }
+        for (CompoundTag section : sections) {
+            CompoundTag blockStates = section.getCompoundTag("block_states");
+            NumberTag sectionY = section.getNumberTag("Y");
+            if(blockStates == null || sectionY == null) {
+                continue;
+            }
+            ListTag<CompoundTag> palette = (ListTag<CompoundTag>) blockStates.get("palette");
+            if(palette != null && !palette.isEmpty()) {
+                consumer.accept(sectionY.asInt(), palette);
+            }
+        }
+    }
 
-            if(data == null || palette == null) {
+    @Override
+    public ArrayList<Block> findBlock(Predicate<CompoundTag> matcher, long sectionMask) {
+        ArrayList<Block> blocks = new ArrayList<>();
+        ListTag<CompoundTag> sections = (ListTag<CompoundTag>) chunkNBT.get("sections");
+        if(sections == null) {
+            return blocks;
+        }
+        int x = getXPos().asInt() << 4;
+        int z = getZPos().asInt() << 4;
+        boolean[] matches = new boolean[16];
+        short[] indices = null;
+        for (CompoundTag section : sections) {
+            CompoundTag blockStates = section.getCompoundTag("block_states");
+            NumberTag sectionY = section.getNumberTag("Y");
+            if(blockStates == null || sectionY == null || (sectionMask & sectionBit(sectionY.asInt())) == 0) {
+                continue;
+            }
+            ListTag<CompoundTag> palette = (ListTag<CompoundTag>) blockStates.get("palette");
+            if(palette == null || palette.isEmpty()) {
                 continue;
             }
 
-            int bitsPerIndex = Math.max(4, (int) Math.ceil(Math.log(palette.size()) / Math.log(2)));
-            int index;
-            int bitPosition;
-            int blockPos = -1;
-            for(long value : data.getValue()) {
-                bitPosition = 0;
-                while(bitPosition + bitsPerIndex <= 64) {
-                    index = 0;
-                    index |= (int) ((value >> bitPosition) & ((1L << bitsPerIndex) - 1));
-                    bitPosition += bitsPerIndex;
-                    CompoundTag block = palette.get(index);
-                    blockPos += 1;
-                    blocks.add(new Block(block, getPosFromOrder(blockPos, x, y, z)));
+            //test the palette first, most sections do not contain the block at all
+            int paletteSize = palette.size();
+            if(matches.length < paletteSize) {
+                matches = new boolean[paletteSize];
+            }
+            boolean anyMatch = false;
+            for(int i = 0; i < paletteSize; i++) {
+                matches[i] = matcher.test(palette.get(i));
+                anyMatch |= matches[i];
+            }
+            if(!anyMatch) {
+                continue;
+            }
+
+            int y = sectionY.asInt() << 4;
+            LongArrayTag data = (LongArrayTag) blockStates.get("data");
+            if(data == null || paletteSize == 1) {//single block state section, every index is 0
+                if(matches[0]) {
+                    for(int i = 0; i < PaletteDecoder.SECTION_VOLUME; i++) {
+                        blocks.add(new Block(palette.get(0), x + (i & 15), y + (i >>> 8), z + ((i >>> 4) & 15)));
+                    }
+                }
+                continue;
+            }
+            if(indices == null) {
+                indices = new short[PaletteDecoder.SECTION_VOLUME];
+            }
+            PaletteDecoder.decodeBlockStates(data.getValue(), paletteSize, indices);
+            for(int i = 0; i < PaletteDecoder.SECTION_VOLUME; i++) {
+                int index = indices[i];
+                if(index < paletteSize && matches[index]) {//only create blocks for matching entries
+                    blocks.add(new Block(palette.get(index), x + (i & 15), y + (i >>> 8), z + ((i >>> 4) & 15)));
                 }
             }
         }
@@ -128,14 +288,22 @@ public class V1_21 extends ChunkBase {
     public void setBlock(Block block, int x, int y, int z) {
         getSectionFromYPos(y).setBlockAt(block, x, y, z);
     }
+    /*
+     * The x and z coordinates can be absolute or relative to the region or chunk, y is the world y-coordinate.
+     */
     @Override
     public Block getBlockAt(int x, int y, int z) {
-        for(Block block : getBlocks()) {
-            if(block.getPosX() == x && block.getPosY() == y && block.getPosZ() == z) {
-                return block;
-            }
+        CompoundTag entry = getPaletteEntryAt(x, y, z);
+        if(entry == null) {
+            return null;
         }
-        return null;
+        return new Block(entry, (getXPos().asInt() << 4) + (x & 15), y, (getZPos().asInt() << 4) + (z & 15));
+    }
+
+    @Override
+    public BlockState getBlockStateAt(int x, int y, int z) {
+        CompoundTag entry = getPaletteEntryAt(x, y, z);
+        return entry == null ? null : BlockStateRegistry.global().intern(entry);
     }
 
     @Override
@@ -157,23 +325,96 @@ public class V1_21 extends ChunkBase {
 
     //------------------------------private utility methods------------------------------\\
     /**
-     * This method is used by the getBlocks method to determine the location of a block within a chunk using the order in which it was stored in the data array.
-     * Entries are stored in order of increasing x coordinate, within rows of increasing z coordinates, within layers of increasing y coordinates.
-     * In other words, if the data array were a multidimensional array in C (considering packed encoding), it would be indexed as array[y][z][x].
-     * see (<a href="https://wiki.vg/Chunk_Format#Data_Array_format">Data Array format</a>) for more info
-     * The method calculates the block's position in the chunk (ranging from 0 to 15 for x, y, and z) and then converts it into world coordinates.
+     * Looks up the palette entry of a single block by extracting only its index from the packed data array.
      *
-     * @param index The index of the block in the data array.
-     * @param x The chunk's x coordinate.
-     * @param y The chunk section y coordinate.
-     * @param z The chunk's z coordinate.
-     * @return An array containing the world coordinates [worldX, worldY, worldZ].
+     * @param x the x-coordinate of the block, only the lowest 4 bits are used
+     * @param y the world y-coordinate of the block
+     * @param z the z-coordinate of the block, only the lowest 4 bits are used
+     * @return the palette entry of the block, or null if its section does not exist or has no block states
+     */
+    private CompoundTag getPaletteEntryAt(int x, int y, int z) {
+        CompoundTag section = getSectionByY(y >> 4);
+        if(section == null) {
+            return null;
+        }
+        CompoundTag blockStates = section.getCompoundTag("block_states");
+        if(blockStates == null) {
+            return null;
+        }
+        ListTag<CompoundTag> palette = (ListTag<CompoundTag>) blockStates.get("palette");
+        if(palette == null || palette.isEmpty()) {
+            return null;
+        }
+        LongArrayTag data = (LongArrayTag) blockStates.get("data");
+        if(data == null || palette.size() == 1) {//single block state section
+            return palette.get(0);
+        }
+        int index = ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+        return palette.get(PaletteDecoder.get(data.getValue(), PaletteDecoder.bitsPerIndex(palette.size()), index));
+    }
+
+    /**
+     * Gets the section NBT with the given section y-coordinate.<p>
+     * The sections are indexed by their y-coordinate on first use, so lookups do not have to search the sections list.
+     * The index is rebuilt when the sections list is replaced.
+     *
+     * @param sectionY the y-coordinate of the section, the block y-coordinate shifted right by 4
+     * @return the section, or null if the chunk has no section at that height
+     */
+    private CompoundTag getSectionByY(int sectionY) {
+        ListTag<CompoundTag> sections = (ListTag<CompoundTag>) chunkNBT.get("sections");
+        if(sections == null) {
+            return null;
+        }
+        SectionIndex index = sectionIndex;
+        if(index == null || index.sections != sections) {
+            index = new SectionIndex(sections);
+            sectionIndex = index;//racing threads build identical indices, so no locking is needed
+        }
+        return index.get(sectionY);
+    }
+
+    /*
+     * Maps section y-coordinates to the sections of a sections list
      */
-    private int[] getPosFromOrder(int index, int x, int y, int z) {
-        int worldX = (x * 16) + (index % 16);
-        int worldY = (y * 16) + (index / 256);
-        int worldZ = (z * 16) + ((index % 256) / 16);
-        return new int[]{worldX, worldY, worldZ};
+    private static final class SectionIndex {
+        private final ListTag<CompoundTag> sections;
+        private final int minY;
+        private final CompoundTag[] byY;
+
+        /*
+         * @param sections, the sections list to index
+         */
+        private SectionIndex(ListTag<CompoundTag> sections) {
+            this.sections = sections;
+            int minY = Integer.MAX_VALUE;
+            int maxY = Integer.MIN_VALUE;
+            for(CompoundTag section : sections) {
+                NumberTag y = section.getNumberTag("Y");
+                if(y != null) {
+                    minY = Math.min(minY, y.asInt());
+                    maxY = Math.max(maxY, y.asInt());
+                }
+            }
+            if(minY > maxY) {//no sections with a y-coordinate
+                this.minY = 0;
+                this.byY = new CompoundTag[0];
+                return;
+            }
+            this.minY = minY;
+            this.byY = new CompoundTag[maxY - minY + 1];
+            for(CompoundTag section : sections) {
+                NumberTag y = section.getNumberTag("Y");
+                if(y != null) {
+                    byY[y.asInt() - minY] = section;
+                }
+            }
+        }
+
+        private CompoundTag get(int sectionY) {
+            int i = sectionY - minY;
+            return i >= 0 && i < byY.length ? byY[i] : null;
+        }
     }
     private void getBlockStateFromPalette(int index) {
 
@@ -187,6 +428,7 @@ public class V1_21 extends ChunkBase {
      */
     public com.protoxon.mca.chunk.section.versions.V1_21 getSectionFromYPos(int y) {
         int sectionIndex = y / 16 * y; // Calculate the index of the block's section
+        loadSectionsIfNeeded();
         for(com.protoxon.mca.chunk.section.versions.V1_21 section : sections) {
             if(section.posY == sectionIndex) {
                 return section;
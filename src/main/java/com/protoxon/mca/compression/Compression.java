@@ -1,8 +1,16 @@
 package com.protoxon.mca.compression;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
-public class Compression {
+/**
+ * Stateless entry point for compressing and decompressing chunk data by compression id.<p>
+ * All methods are static, so the per-chunk dispatch does not allocate.
+ */
+public final class Compression {
+
+    private Compression() {
+    }
 
     /**
      * Decompresses the given compressed data based on the specified compression method ID.
@@ -12,7 +20,23 @@ public class Compression {
      * @param compressedData The data to be decompressed.
      * @return byte[] The decompressed data.
      */
-    public byte[] decompress(int compressionID, byte[] compressedData) throws IOException {
+    public static byte[] decompress(int compressionID, byte[] compressedData) throws IOException {
+        CompressionType compressionType = CompressionType.getFromID(compressionID);
+        if(compressionType == null) {
+            throw new IOException("invalid compression type " + compressionID);
+        }
+        return compressionType.decompress(compressedData);
+    }
+
+    /**
+     * Decompresses the remaining bytes of the buffer based on the specified compression method ID.
+     * see <a href="https://minecraft.wiki/w/Region_file_format#Payload">Region File Payload</a> for compression id's
+     *
+     * @param compressionID The ID representing the compression method used
+     * @param compressedData The data to be decompressed, such as a slice of a memory mapped region file.
+     * @return byte[] The decompressed data.
+     */
+    public static byte[] decompress(int compressionID, ByteBuffer compressedData) throws IOException {
         CompressionType compressionType = CompressionType.getFromID(compressionID);
         if(compressionType == null) {
             throw new IOException("invalid compression type " + compressionID);
@@ -20,6 +44,24 @@ public class Compression {
         return compressionType.decompress(compressedData);
     }
 
+    /**
+     * Decompresses the remaining bytes of the buffer into a reusable scratch buffer.<p>
+     * This avoids copying the decompressed data into a right-sized array, but the returned buffer is only valid
+     * until the next decompression on the same thread, so it must be consumed (e.g. parsed to NBT) before then.
+     * see <a href="https://minecraft.wiki/w/Region_file_format#Payload">Region File Payload</a> for compression id's
+     *
+     * @param compressionID The ID representing the compression method used
+     * @param compressedData The data to be decompressed, such as a slice of a memory mapped region file.
+     * @return ByteBuffer The decompressed data between the buffers position and limit.
+     */
+    public static ByteBuffer decompressToBuffer(int compressionID, ByteBuffer compressedData) throws IOException {
+        CompressionType compressionType = CompressionType.getFromID(compressionID);
+        if(compressionType == null) {
+            throw new IOException("invalid compression type " + compressionID);
+        }
+        return compressionType.decompressToBuffer(compressedData);
+    }
+
     /**
      * compresses the given compressed data based on the specified compression method ID.
      * see <a href="https://minecraft.wiki/w/Region_file_format#Payload">Region File Payload</a> for compression id's
@@ -28,7 +70,7 @@ public class Compression {
      * @param uncompressedData The data to be compressed.
      * @return byte[] The decompressed data.
      */
-    public byte[] compress(int compressionID, byte[] uncompressedData) throws IOException {
+    public static byte[] compress(int compressionID, byte[] uncompressedData) throws IOException {
         CompressionType compressionType = CompressionType.getFromID(compressionID);
         if(compressionType == null) {
             throw new IOException("invalid compression type " + compressionID);
@@ -4,6 +4,7 @@ import com.protoxon.mca.compression.compressors.*;
 import com.protoxon.mca.compression.decompressors.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * An enumeration representing each compression type used in Minecraft region files.
@@ -24,6 +25,15 @@ public enum CompressionType {
     NONE(3, data -> data, data -> data),
     LZ4(4, new Lz4Decompressor(), new Lz4Compressor()),
     CUSTOM(127, new CustomDecompressor(), new CustomCompressor());
+    //lookup table indexed by compression id, ids are stored in a signed byte so they range from 0 to 127
+    private static final CompressionType[] BY_ID = new CompressionType[128];
+
+    static {
+        for (CompressionType compressionType : values()) {
+            BY_ID[compressionType.id] = compressionType;
+        }
+    }
+
     private final int id;
     private final Decompressor decompressor;
     private final Compressor compressor;
@@ -38,18 +48,23 @@ public enum CompressionType {
         return decompressor.decompress(compressedData);
     }
 
+    //decompresses the remaining bytes of the buffer using the enums defined decompressor
+    public byte[] decompress(ByteBuffer compressedData) throws IOException {
+        return decompressor.decompress(compressedData);
+    }
+
+    //decompresses the remaining bytes of the buffer into a buffer that may be reused by the next call on this thread
+    public ByteBuffer decompressToBuffer(ByteBuffer compressedData) throws IOException {
+        return decompressor.decompressToBuffer(compressedData);
+    }
+
     //compresses the bytes using the enums defined compressor
     public byte[] compress(byte[] compressedData) throws IOException {
         return compressor.compress(compressedData);
     }
 
-    //returns the compression type associated with the id
+    //returns the compression type associated with the id, or null if the id is unknown
     public static CompressionType getFromID(int id) {
-        for (CompressionType compressionType : CompressionType.values()) {
-            if (compressionType.id == id) {
-                return compressionType;
-            }
-        }
-        return null;
+        return id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
     }
 }
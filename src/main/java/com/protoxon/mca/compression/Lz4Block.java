@@ -0,0 +1,113 @@
+package com.protoxon.mca.compression;
+
+/**
+ * Constants and checksum of the LZ4 block stream format used for LZ4 compressed chunks.<p>
+ * Minecraft writes LZ4 chunks with lz4-java's {@code LZ4BlockOutputStream}, which splits the data into blocks of at most 64KiB.
+ * Each block starts with a 21 byte header:
+ * <pre>
+ *     magic "LZ4Block" (8 bytes), token (1 byte), compressed length, decompressed length, checksum (little endian ints)
+ * </pre>
+ * The high bits of the token are the compression method and the low bits are the block size as {@code log2(size) - 10}.
+ * The stream ends with an empty block whose lengths and checksum are 0.
+ */
+public final class Lz4Block {
+
+    public static final byte[] MAGIC = {'L', 'Z', '4', 'B', 'l', 'o', 'c', 'k'};
+    public static final int HEADER_LENGTH = MAGIC.length + 1 + 4 + 4 + 4;
+    //the block is stored uncompressed
+    public static final int METHOD_RAW = 0x10;
+    //the block is compressed with the LZ4 block format
+    public static final int METHOD_LZ4 = 0x20;
+    public static final int BLOCK_SIZE = 64 * 1024;
+    public static final int COMPRESSION_LEVEL = 6;//log2(BLOCK_SIZE) - 10
+    //the largest block lz4-java writes or reads, larger decompressed lengths come from corrupt data
+    public static final int MAX_BLOCK_SIZE = 1 << 25;
+    //the seed lz4-java uses for the block checksums
+    private static final int SEED = 0x9747b28c;
+
+    private static final int PRIME1 = 0x9E3779B1;
+    private static final int PRIME2 = 0x85EBCA77;
+    private static final int PRIME3 = 0xC2B2AE3D;
+    private static final int PRIME4 = 0x27D4EB2F;
+    private static final int PRIME5 = 0x165667B1;
+
+    private Lz4Block() {
+    }
+
+    /**
+     * Calculates the checksum of a decompressed block, the XXHash32 of the data truncated to 28 bits.
+     *
+     * @param data the array holding the decompressed block
+     * @param offset the offset of the block in the array
+     * @param length the length of the block
+     * @return the block checksum
+     */
+    public static int checksum(byte[] data, int offset, int length) {
+        return xxHash32(data, offset, length, SEED) & 0xFFFFFFF;
+    }
+
+    /**
+     * Calculates the XXHash32 of the data.
+     * see <a href="https://github.com/Cyan4973/xxHash/blob/dev/doc/xxhash_spec.md">xxHash specification</a>
+     *
+     * @param data the array holding the data
+     * @param offset the offset of the data in the array
+     * @param length the length of the data
+     * @param seed the hash seed
+     * @return the 32 bit hash
+     */
+    public static int xxHash32(byte[] data, int offset, int length, int seed) {
+        int end = offset + length;
+        int position = offset;
+        int hash;
+        if (length >= 16) {
+            int v1 = seed + PRIME1 + PRIME2;
+            int v2 = seed + PRIME2;
+            int v3 = seed;
+            int v4 = seed - PRIME1;
+            int limit = end - 16;
+            do {
+                v1 = Integer.rotateLeft(v1 + readIntLE(data, position) * PRIME2, 13) * PRIME1;
+                v2 = Integer.rotateLeft(v2 + readIntLE(data, position + 4) * PRIME2, 13) * PRIME1;
+                v3 = Integer.rotateLeft(v3 + readIntLE(data, position + 8) * PRIME2, 13) * PRIME1;
+                v4 = Integer.rotateLeft(v4 + readIntLE(data, position + 12) * PRIME2, 13) * PRIME1;
+                position += 16;
+            } while (position <= limit);
+            hash = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) + Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+        } else {
+            hash = seed + PRIME5;
+        }
+        hash += length;
+        while (position <= end - 4) {
+            hash = Integer.rotateLeft(hash + readIntLE(data, position) * PRIME3, 17) * PRIME4;
+            position += 4;
+        }
+        while (position < end) {
+            hash = Integer.rotateLeft(hash + (data[position] & 0xFF) * PRIME5, 11) * PRIME1;
+            position++;
+        }
+        hash ^= hash >>> 15;
+        hash *= PRIME2;
+        hash ^= hash >>> 13;
+        hash *= PRIME3;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * Reads a little endian int from the array.
+     */
+    public static int readIntLE(byte[] data, int position) {
+        return (data[position] & 0xFF) | (data[position + 1] & 0xFF) << 8 | (data[position + 2] & 0xFF) << 16 | (data[position + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * Writes a little endian int to the array.
+     */
+    public static void writeIntLE(byte[] data, int position, int value) {
+        data[position] = (byte) value;
+        data[position + 1] = (byte) (value >>> 8);
+        data[position + 2] = (byte) (value >>> 16);
+        data[position + 3] = (byte) (value >>> 24);
+    }
+}
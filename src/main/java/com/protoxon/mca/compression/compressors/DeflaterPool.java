@@ -0,0 +1,79 @@
+package com.protoxon.mca.compression.compressors;
+
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Per-thread {@link Deflater} instances and scratch buffers shared by the deflate based compressors.<p>
+ * Creating a {@code Deflater} allocates and zeroes native zlib state, reusing one per thread avoids doing so for every chunk.
+ */
+final class DeflaterPool {
+
+    //the initial size of the scratch buffer chunks are deflated into, grown as needed
+    private static final int OUTPUT_BUFFER_SIZE = 16 * 1024;
+    //scratch buffers that grew larger than this are not kept, so one huge chunk does not pin memory on every thread
+    private static final int MAX_RETAINED_BUFFER_SIZE = 8 * 1024 * 1024;
+
+    private static final ThreadLocal<Deflater> ZLIB_DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, false));
+    private static final ThreadLocal<Deflater> RAW_DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+    private static final ThreadLocal<byte[]> OUTPUT_BUFFER = ThreadLocal.withInitial(() -> new byte[OUTPUT_BUFFER_SIZE]);
+
+    private DeflaterPool() {
+    }
+
+    /**
+     * Gets the deflater of the current thread, reset and ready for new input.
+     *
+     * @param nowrap true to write raw deflate data (as in GZIP), false to write a zlib header and checksum
+     * @return the reset deflater
+     */
+    static Deflater get(boolean nowrap) {
+        Deflater deflater = nowrap ? RAW_DEFLATER.get() : ZLIB_DEFLATER.get();
+        deflater.reset();
+        return deflater;
+    }
+
+    /**
+     * Deflates the data and finishes the deflate stream.
+     *
+     * @param deflater a reset deflater from {@link #get(boolean)}
+     * @param data the uncompressed data
+     * @param offset the offset of the data in the array
+     * @param length the length of the data
+     * @return byte[] of compressed data
+     */
+    static byte[] deflate(Deflater deflater, byte[] data, int offset, int length) {
+        return deflate(deflater, data, offset, length, 0, 0);
+    }
+
+    /**
+     * Deflates the data and finishes the deflate stream, leaving room around the compressed data for a header and trailer.
+     *
+     * @param deflater a reset deflater from {@link #get(boolean)}
+     * @param data the uncompressed data
+     * @param offset the offset of the data in the array
+     * @param length the length of the data
+     * @param headerSize the number of bytes to leave free before the compressed data
+     * @param trailerSize the number of bytes to leave free after the compressed data
+     * @return byte[] holding the compressed data between the header and trailer
+     */
+    static byte[] deflate(Deflater deflater, byte[] data, int offset, int length, int headerSize, int trailerSize) {
+        deflater.setInput(data, offset, length);
+        deflater.finish();
+        byte[] output = OUTPUT_BUFFER.get();
+        int size = headerSize;
+        try {
+            while (!deflater.finished()) {
+                if (size == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                size += deflater.deflate(output, size, output.length - size);
+            }
+        } finally {
+            if (output.length <= MAX_RETAINED_BUFFER_SIZE) {
+                OUTPUT_BUFFER.set(output);
+            }
+        }
+        return Arrays.copyOf(output, size + trailerSize);
+    }
+}
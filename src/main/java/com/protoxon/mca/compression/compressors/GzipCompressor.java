@@ -1,10 +1,38 @@
 package com.protoxon.mca.compression.compressors;
 
 import java.io.IOException;
+import java.util.zip.CRC32;
 
+/**
+ * Compresses chunks with GZIP, writing the same header as {@link java.util.zip.GZIPOutputStream}.<p>
+ * The deflate data is written with the threads reused deflater, see {@link DeflaterPool}
+ */
 public class GzipCompressor implements Compressor {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, 0};
+    private static final int TRAILER_LENGTH = 8;
+
+    /** compresses data with GZIP
+     *
+     * @param data the uncompressed data
+     * @return byte[] of compressed data
+     */
     @Override
     public byte[] compress(byte[] data) throws IOException {
-        throw new UnsupportedOperationException("Compression type not yet supported");
+        byte[] output = DeflaterPool.deflate(DeflaterPool.get(true), data, 0, data.length, HEADER.length, TRAILER_LENGTH);
+        System.arraycopy(HEADER, 0, output, 0, HEADER.length);
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        int trailer = output.length - TRAILER_LENGTH;
+        writeIntLE(output, trailer, (int) crc.getValue());
+        writeIntLE(output, trailer + 4, data.length);
+        return output;
+    }
+
+    private static void writeIntLE(byte[] data, int position, int value) {
+        data[position] = (byte) value;
+        data[position + 1] = (byte) (value >>> 8);
+        data[position + 2] = (byte) (value >>> 16);
+        data[position + 3] = (byte) (value >>> 24);
     }
 }
@@ -1,10 +1,160 @@
 package com.protoxon.mca.compression.compressors;
 
+import com.protoxon.mca.compression.Lz4Block;
+
 import java.io.IOException;
+import java.util.Arrays;
+
+import static com.protoxon.mca.compression.Lz4Block.writeIntLE;
 
+/**
+ * Compresses chunks with the LZ4 block stream format, see {@link Lz4Block}<p>
+ * Uses a greedy single pass match finder, like the fast compressor lz4-java uses for Minecraft's LZ4 chunks.
+ */
 public class Lz4Compressor implements Compressor {
+
+    private static final int MIN_MATCH = 4;
+    //the last literals of a block are never part of a match
+    private static final int LAST_LITERALS = 5;
+    //the last match must start at least this many bytes before the end of a block
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_OFFSET = 65535;
+    private static final int HASH_LOG = 12;
+
+    //the match finders hash table, holding the position of the last 4 bytes that hashed to each slot plus one
+    private static final ThreadLocal<int[]> HASH_TABLE = ThreadLocal.withInitial(() -> new int[1 << HASH_LOG]);
+
+    /** compresses data with LZ4
+     *
+     * @param data the uncompressed data
+     * @return byte[] of compressed data
+     */
     @Override
     public byte[] compress(byte[] data) throws IOException {
-        throw new UnsupportedOperationException("Compression type not yet supported");
+        int blocks = (data.length + Lz4Block.BLOCK_SIZE - 1) / Lz4Block.BLOCK_SIZE;
+        //worst case every block is stored raw, plus a header for each block and the end block
+        byte[] output = new byte[data.length + (blocks + 1) * Lz4Block.HEADER_LENGTH];
+        int size = 0;
+        for (int offset = 0; offset < data.length; offset += Lz4Block.BLOCK_SIZE) {
+            int length = Math.min(Lz4Block.BLOCK_SIZE, data.length - offset);
+            int blockStart = size + Lz4Block.HEADER_LENGTH;
+            int compressedLength = compressBlock(data, offset, length, output, blockStart, length);
+            int method = Lz4Block.METHOD_LZ4;
+            if (compressedLength < 0) {//the block did not shrink, store it raw
+                System.arraycopy(data, offset, output, blockStart, length);
+                compressedLength = length;
+                method = Lz4Block.METHOD_RAW;
+            }
+            writeHeader(output, size, method, compressedLength, length, Lz4Block.checksum(data, offset, length));
+            size = blockStart + compressedLength;
+        }
+        writeHeader(output, size, Lz4Block.METHOD_RAW, 0, 0, 0);//an empty block marks the end of the stream
+        size += Lz4Block.HEADER_LENGTH;
+        return Arrays.copyOf(output, size);
+    }
+
+    private static void writeHeader(byte[] output, int position, int method, int compressedLength, int decompressedLength, int checksum) {
+        System.arraycopy(Lz4Block.MAGIC, 0, output, position, Lz4Block.MAGIC.length);
+        position += Lz4Block.MAGIC.length;
+        output[position] = (byte) (method | Lz4Block.COMPRESSION_LEVEL);
+        writeIntLE(output, position + 1, compressedLength);
+        writeIntLE(output, position + 5, decompressedLength);
+        writeIntLE(output, position + 9, checksum);
+    }
+
+    /**
+     * Compresses a single block with the LZ4 block format.
+     * see <a href="https://github.com/lz4/lz4/blob/dev/doc/lz4_Block_format.md">LZ4 Block Format</a> for more info
+     *
+     * @return the compressed length, or -1 if the block would not fit in maxLength bytes
+     */
+    private static int compressBlock(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int maxLength) {
+        int[] hashTable = HASH_TABLE.get();
+        Arrays.fill(hashTable, 0);
+        int srcEnd = srcOffset + srcLength;
+        int matchLimit = srcEnd - LAST_LITERALS;
+        int mfLimit = srcEnd - MF_LIMIT;
+        int destEnd = destOffset + maxLength;
+        int destPosition = destOffset;
+        int anchor = srcOffset;
+        int position = srcOffset;
+
+        while (position < mfLimit) {
+            int sequence = readInt(src, position);
+            int hash = (sequence * 0x9E3779B1) >>> (32 - HASH_LOG);
+            int reference = hashTable[hash] - 1 + srcOffset;
+            hashTable[hash] = position - srcOffset + 1;
+            if (reference < srcOffset || position - reference > MAX_OFFSET || readInt(src, reference) != sequence) {
+                position++;
+                continue;
+            }
+
+            int matchLength = MIN_MATCH;
+            while (position + matchLength < matchLimit && src[reference + matchLength] == src[position + matchLength]) {
+                matchLength++;
+            }
+
+            destPosition = writeSequence(src, anchor, position - anchor, position - reference, matchLength, dest, destPosition, destEnd);
+            if (destPosition < 0) {
+                return -1;
+            }
+            position += matchLength;
+            anchor = position;
+        }
+
+        //the rest of the block is written as literals
+        destPosition = writeSequence(src, anchor, srcEnd - anchor, 0, 0, dest, destPosition, destEnd);
+        return destPosition < 0 ? -1 : destPosition - destOffset;
+    }
+
+    /**
+     * Writes a sequence of literals followed by a match, or only literals if the match length is 0.
+     *
+     * @return the position after the sequence, or -1 if it does not fit before destEnd
+     */
+    private static int writeSequence(byte[] src, int literalStart, int literalLength, int matchOffset, int matchLength, byte[] dest, int destPosition, int destEnd) {
+        //token, literals, extra length bytes for both lengths and the offset
+        if (destEnd - destPosition < 1 + literalLength + literalLength / 255 + 1 + 2 + matchLength / 255 + 1) {
+            return -1;
+        }
+        int tokenPosition = destPosition++;
+        int token;
+        if (literalLength >= 15) {
+            token = 15 << 4;
+            destPosition = writeLength(dest, destPosition, literalLength - 15);
+        } else {
+            token = literalLength << 4;
+        }
+        System.arraycopy(src, literalStart, dest, destPosition, literalLength);
+        destPosition += literalLength;
+        if (matchLength > 0) {
+            dest[destPosition++] = (byte) matchOffset;
+            dest[destPosition++] = (byte) (matchOffset >>> 8);
+            int length = matchLength - MIN_MATCH;
+            if (length >= 15) {
+                token |= 15;
+                destPosition = writeLength(dest, destPosition, length - 15);
+            } else {
+                token |= length;
+            }
+        }
+        dest[tokenPosition] = (byte) token;
+        return destPosition;
+    }
+
+    /**
+     * Writes the extra bytes of a literal or match length, 255 per byte until the last byte which holds the rest.
+     */
+    private static int writeLength(byte[] dest, int destPosition, int length) {
+        while (length >= 255) {
+            dest[destPosition++] = (byte) 255;
+            length -= 255;
+        }
+        dest[destPosition++] = (byte) length;
+        return destPosition;
+    }
+
+    private static int readInt(byte[] data, int position) {
+        return Lz4Block.readIntLE(data, position);
     }
 }
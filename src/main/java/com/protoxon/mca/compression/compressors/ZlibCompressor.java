@@ -1,8 +1,6 @@
 package com.protoxon.mca.compression.compressors;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.zip.Deflater;
 
 public class ZlibCompressor implements Compressor {
 
@@ -13,21 +11,7 @@ public class ZlibCompressor implements Compressor {
      */
     @Override
     public byte[] compress(byte[] data) throws IOException {
-        Deflater deflater = new Deflater();
-        deflater.setInput(data);
-        deflater.finish();
-        byte[] buffer = new byte[1024];
-        int compressedDataLength;
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-
-        try {
-            while (!deflater.finished()) {
-                compressedDataLength = deflater.deflate(buffer);
-                outputStream.write(buffer, 0, compressedDataLength);
-            }
-        } finally {
-            deflater.end();
-        }
-        return outputStream.toByteArray();
+        //the deflater is reused by the current thread, see DeflaterPool
+        return DeflaterPool.deflate(DeflaterPool.get(false), data, 0, data.length);
     }
 }
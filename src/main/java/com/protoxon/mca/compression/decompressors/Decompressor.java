@@ -1,7 +1,34 @@
 package com.protoxon.mca.compression.decompressors;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public interface Decompressor {
     byte[] decompress(byte[] data) throws IOException;
+
+    /**
+     * Decompresses the remaining bytes of a buffer.<p>
+     * The default implementation copies the buffer onto the heap, decompressors that can read from a buffer directly should override this.
+     *
+     * @param data the compressed data
+     * @return byte[] of uncompressed data
+     */
+    default byte[] decompress(ByteBuffer data) throws IOException {
+        byte[] compressedData = new byte[data.remaining()];
+        data.get(compressedData);
+        return decompress(compressedData);
+    }
+
+    /**
+     * Decompresses the remaining bytes of a buffer into a buffer that may be reused.<p>
+     * Decompressors that inflate into a per-thread scratch buffer return a view of it instead of copying the result
+     * into a right-sized array, so the returned buffer is only valid until the next decompression on the same thread.
+     * The default implementation wraps the result of {@link #decompress(ByteBuffer)}.
+     *
+     * @param data the compressed data
+     * @return a buffer holding the uncompressed data between its position and limit
+     */
+    default ByteBuffer decompressToBuffer(ByteBuffer data) throws IOException {
+        return ByteBuffer.wrap(decompress(data));
+    }
 }
@@ -1,10 +1,131 @@
 package com.protoxon.mca.compression.decompressors;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.ZipException;
 
+/**
+ * Decompresses chunks compressed with GZIP.<p>
+ * The header and trailer are parsed here and the deflate data is inflated with the threads reused inflater, see {@link InflaterPool}
+ * see <a href="https://www.rfc-editor.org/rfc/rfc1952">GZIP file format</a> for more info
+ */
 public class GzipDecompressor implements Decompressor {
+
+    private static final int MAGIC = 0x8b1f;
+    private static final int DEFLATE = 8;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int TRAILER_LENGTH = 8;
+
+    /** decompresses data compressed with GZIP
+     *
+     * @param data the compressed data
+     * @return byte[] of uncompressed data
+     */
     @Override
     public byte[] decompress(byte[] data) throws IOException {
-        throw new UnsupportedOperationException("Compression type not yet supported");
+        return decompress(ByteBuffer.wrap(data));
+    }
+
+    /** decompresses data compressed with GZIP, reading straight from the buffer
+     *
+     * @param data the compressed data
+     * @return byte[] of uncompressed data
+     */
+    @Override
+    public byte[] decompress(ByteBuffer data) throws IOException {
+        ByteBuffer output = decompressToBuffer(data);
+        return Arrays.copyOfRange(output.array(), 0, output.limit());
+    }
+
+    /** decompresses data compressed with GZIP into the scratch buffer of the current thread
+     *
+     * @param data the compressed data
+     * @return a buffer holding the uncompressed data, valid until the next decompression on this thread
+     */
+    @Override
+    public ByteBuffer decompressToBuffer(ByteBuffer data) throws IOException {
+        ByteBuffer input = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            readHeader(input);
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new EOFException("Unexpected end of GZIP header");
+        }
+        ByteBuffer output = InflaterPool.inflateToBuffer(InflaterPool.get(true), input);
+        if (input.remaining() < TRAILER_LENGTH) {
+            throw new EOFException("Unexpected end of GZIP trailer");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(output.array(), 0, output.limit());
+        if (input.getInt() != (int) crc.getValue()) {
+            throw new ZipException("Corrupt GZIP trailer");
+        }
+        if (input.getInt() != output.limit()) {//ISIZE holds the length modulo 2^32
+            throw new ZipException("Corrupt GZIP trailer");
+        }
+        data.position(input.position());
+        return output;
+    }
+
+    /**
+     * Reads the GZIP header, leaving the buffer positioned at the start of the deflate data.
+     *
+     * @param input a little endian buffer positioned at the start of the header
+     * @throws IOException if the header is invalid
+     */
+    private static void readHeader(ByteBuffer input) throws IOException {
+        int start = input.position();
+        if ((input.getShort() & 0xFFFF) != MAGIC) {
+            throw new ZipException("Not in GZIP format");
+        }
+        if (input.get() != DEFLATE) {
+            throw new ZipException("Unsupported GZIP compression method");
+        }
+        int flags = input.get() & 0xFF;
+        skip(input, 6);//skip the modification time, extra flags and operating system
+        if ((flags & FEXTRA) != 0) {
+            int length = input.getShort() & 0xFFFF;
+            skip(input, length);
+        }
+        if ((flags & FNAME) != 0) {
+            while (input.get() != 0) {
+                //skip the zero terminated file name
+            }
+        }
+        if ((flags & FCOMMENT) != 0) {
+            while (input.get() != 0) {
+                //skip the zero terminated comment
+            }
+        }
+        if ((flags & FHCRC) != 0) {
+            CRC32 crc = new CRC32();
+            ByteBuffer header = input.duplicate();
+            header.position(start);
+            header.limit(input.position());
+            crc.update(header);
+            if ((input.getShort() & 0xFFFF) != ((int) crc.getValue() & 0xFFFF)) {
+                throw new ZipException("Corrupt GZIP header");
+            }
+        }
+    }
+
+    /**
+     * Skips over part of the header, a plain position change would throw an IllegalArgumentException on truncated data.
+     *
+     * @param input the buffer holding the header
+     * @param length the number of bytes to skip
+     * @throws EOFException if the header ends before the skipped bytes
+     */
+    private static void skip(ByteBuffer input, int length) throws EOFException {
+        if (input.remaining() < length) {
+            throw new EOFException("Unexpected end of GZIP header");
+        }
+        input.position(input.position() + length);
     }
 }
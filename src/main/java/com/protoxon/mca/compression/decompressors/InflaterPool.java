@@ -0,0 +1,112 @@
+package com.protoxon.mca.compression.decompressors;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Per-thread {@link Inflater} instances and scratch buffers shared by the deflate based decompressors.<p>
+ * Creating an {@code Inflater} allocates and zeroes native zlib state, reusing one per thread avoids doing so for every chunk.
+ */
+final class InflaterPool {
+
+    //the size of the scratch buffer used to feed off-heap input to the inflater
+    private static final int INPUT_BUFFER_SIZE = 8 * 1024;
+    //the initial size of the scratch buffer chunks are inflated into, grown as needed
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    //scratch buffers that grew larger than this are not kept, so one huge chunk does not pin memory on every thread
+    private static final int MAX_RETAINED_BUFFER_SIZE = 8 * 1024 * 1024;
+
+    private static final ThreadLocal<Inflater> ZLIB_INFLATER = ThreadLocal.withInitial(() -> new Inflater(false));
+    private static final ThreadLocal<Inflater> RAW_INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+    private static final ThreadLocal<byte[]> INPUT_BUFFER = ThreadLocal.withInitial(() -> new byte[INPUT_BUFFER_SIZE]);
+    private static final ThreadLocal<byte[]> OUTPUT_BUFFER = ThreadLocal.withInitial(() -> new byte[OUTPUT_BUFFER_SIZE]);
+
+    private InflaterPool() {
+    }
+
+    /**
+     * Gets the inflater of the current thread, reset and ready for new input.
+     *
+     * @param nowrap true for raw deflate data (as in GZIP), false for data with a zlib header and checksum
+     * @return the reset inflater
+     */
+    static Inflater get(boolean nowrap) {
+        Inflater inflater = nowrap ? RAW_INFLATER.get() : ZLIB_INFLATER.get();
+        inflater.reset();
+        return inflater;
+    }
+
+    /**
+     * Inflates the remaining bytes of the buffer until the end of the deflate stream.<p>
+     * Heap buffers are handed to the inflater directly, other buffers are fed through a small per-thread scratch buffer.
+     *
+     * @param inflater a reset inflater from {@link #get(boolean)}
+     * @param input the compressed data, its position is moved past the bytes that were read
+     * @return byte[] of uncompressed data
+     * @throws IOException if the data is corrupt or ends before the deflate stream does
+     */
+    static byte[] inflate(Inflater inflater, ByteBuffer input) throws IOException {
+        ByteBuffer output = inflateToBuffer(inflater, input);
+        return Arrays.copyOfRange(output.array(), 0, output.limit());
+    }
+
+    /**
+     * Inflates the remaining bytes of the buffer into the per-thread scratch buffer.<p>
+     * The returned buffer is only valid until the next inflate on the same thread, as the scratch buffer is reused.
+     *
+     * @param inflater a reset inflater from {@link #get(boolean)}
+     * @param input the compressed data, its position is moved past the bytes that were read
+     * @return a heap buffer wrapping the scratch buffer, limited to the uncompressed data
+     * @throws IOException if the data is corrupt or ends before the deflate stream does
+     */
+    static ByteBuffer inflateToBuffer(Inflater inflater, ByteBuffer input) throws IOException {
+        byte[] output = OUTPUT_BUFFER.get();
+        int size = 0;
+        try {
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    if (!input.hasRemaining()) {
+                        throw new EOFException("Unexpected end of compressed chunk data");
+                    }
+                    setInput(inflater, input);
+                } else if (inflater.needsDictionary()) {
+                    throw new ZipException("Compressed chunk data requires a preset dictionary");
+                }
+                if (size == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                size += inflater.inflate(output, size, output.length - size);
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage() != null ? e.getMessage() : "Invalid compressed chunk data");
+        } finally {
+            if (output.length <= MAX_RETAINED_BUFFER_SIZE) {
+                OUTPUT_BUFFER.set(output);//keep the grown buffer so the next chunk starts at the right size
+            }
+        }
+        input.position(input.position() - inflater.getRemaining());//give back the bytes past the end of the deflate stream
+        return ByteBuffer.wrap(output, 0, size);
+    }
+
+    /**
+     * Hands the next piece of the input buffer to the inflater.
+     */
+    private static void setInput(Inflater inflater, ByteBuffer input) {
+        int length;
+        if (input.hasArray()) {
+            length = input.remaining();
+            inflater.setInput(input.array(), input.arrayOffset() + input.position(), length);
+        } else {
+            byte[] inputBuffer = INPUT_BUFFER.get();
+            length = Math.min(inputBuffer.length, input.remaining());
+            input.duplicate().get(inputBuffer, 0, length);
+            inflater.setInput(inputBuffer, 0, length);
+        }
+        input.position(input.position() + length);
+    }
+}
@@ -1,10 +1,197 @@
 package com.protoxon.mca.compression.decompressors;
 
+import com.protoxon.mca.compression.Lz4Block;
+
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static com.protoxon.mca.compression.Lz4Block.readIntLE;
 
+/**
+ * Decompresses chunks written with the LZ4 block stream format, see {@link Lz4Block}
+ */
 public class Lz4Decompressor implements Decompressor {
+
+    //the initial size of the scratch buffer chunks are decompressed into, grown as needed
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    //scratch buffers that grew larger than this are not kept, so one huge chunk does not pin memory on every thread
+    private static final int MAX_RETAINED_BUFFER_SIZE = 8 * 1024 * 1024;
+
+    private static final ThreadLocal<byte[]> INPUT_BUFFER = ThreadLocal.withInitial(() -> new byte[OUTPUT_BUFFER_SIZE]);
+    private static final ThreadLocal<byte[]> OUTPUT_BUFFER = ThreadLocal.withInitial(() -> new byte[OUTPUT_BUFFER_SIZE]);
+
+    /** decompresses data compressed with LZ4
+     *
+     * @param data the compressed data
+     * @return byte[] of uncompressed data
+     */
     @Override
     public byte[] decompress(byte[] data) throws IOException {
-        throw new UnsupportedOperationException("Compression type not yet supported");
+        return decompress(ByteBuffer.wrap(data));
+    }
+
+    /** decompresses data compressed with LZ4, reading straight from the buffer
+     *
+     * @param data the compressed data
+     * @return byte[] of uncompressed data
+     */
+    @Override
+    public byte[] decompress(ByteBuffer data) throws IOException {
+        ByteBuffer output = decompressToBuffer(data);
+        return Arrays.copyOfRange(output.array(), 0, output.limit());
+    }
+
+    /** decompresses data compressed with LZ4 into the scratch buffer of the current thread
+     *
+     * @param data the compressed data
+     * @return a buffer holding the uncompressed data, valid until the next decompression on this thread
+     */
+    @Override
+    public ByteBuffer decompressToBuffer(ByteBuffer data) throws IOException {
+        byte[] input;
+        int position;
+        int end;
+        if (data.hasArray()) {
+            input = data.array();
+            position = data.arrayOffset() + data.position();
+        } else {//copy off-heap data into the scratch input buffer
+            input = INPUT_BUFFER.get();
+            if (input.length < data.remaining()) {
+                input = new byte[data.remaining()];
+                if (input.length <= MAX_RETAINED_BUFFER_SIZE) {
+                    INPUT_BUFFER.set(input);
+                }
+            }
+            data.duplicate().get(input, 0, data.remaining());
+            position = 0;
+        }
+        end = position + data.remaining();
+        int start = position;
+
+        byte[] output = OUTPUT_BUFFER.get();
+        int size = 0;
+        try {
+            while (true) {
+                if (end - position < Lz4Block.HEADER_LENGTH) {
+                    throw new IOException("Unexpected end of LZ4 chunk data");
+                }
+                for (int i = 0; i < Lz4Block.MAGIC.length; i++) {
+                    if (input[position + i] != Lz4Block.MAGIC[i]) {
+                        throw new IOException("Invalid LZ4 block magic");
+                    }
+                }
+                position += Lz4Block.MAGIC.length;
+                int method = input[position] & 0xF0;
+                int compressedLength = readIntLE(input, position + 1);
+                int decompressedLength = readIntLE(input, position + 5);
+                int checksum = readIntLE(input, position + 9);
+                position += 13;
+                if (compressedLength == 0 && decompressedLength == 0) {//an empty block marks the end of the stream
+                    if (checksum != 0) {
+                        throw new IOException("Invalid LZ4 end block");
+                    }
+                    break;
+                }
+                if (compressedLength < 0 || decompressedLength < 0 || compressedLength > end - position
+                        || decompressedLength > Lz4Block.MAX_BLOCK_SIZE || (long) size + decompressedLength > Integer.MAX_VALUE
+                        || (method == Lz4Block.METHOD_RAW && compressedLength != decompressedLength)) {
+                    throw new IOException("Invalid LZ4 block lengths");
+                }
+                if (output.length - size < decompressedLength) {
+                    output = Arrays.copyOf(output, Math.max(output.length * 2, size + decompressedLength));
+                }
+                if (method == Lz4Block.METHOD_RAW) {
+                    System.arraycopy(input, position, output, size, decompressedLength);
+                } else if (method == Lz4Block.METHOD_LZ4) {
+                    decompressBlock(input, position, compressedLength, output, size, decompressedLength);
+                } else {
+                    throw new IOException("Unknown LZ4 block method " + method);
+                }
+                if (Lz4Block.checksum(output, size, decompressedLength) != checksum) {
+                    throw new IOException("LZ4 block checksum mismatch");
+                }
+                position += compressedLength;
+                size += decompressedLength;
+            }
+        } finally {
+            if (output.length <= MAX_RETAINED_BUFFER_SIZE) {
+                OUTPUT_BUFFER.set(output);//keep the grown buffer so the next chunk starts at the right size
+            }
+        }
+        data.position(data.position() + (position - start));
+        return ByteBuffer.wrap(output, 0, size);
+    }
+
+    /**
+     * Decompresses a single block of the LZ4 block format.<p>
+     * A block is a series of sequences, each made of a run of literal bytes followed by a match copied from earlier output.
+     * see <a href="https://github.com/lz4/lz4/blob/dev/doc/lz4_Block_format.md">LZ4 Block Format</a> for more info
+     *
+     * @throws IOException if the block is corrupt or does not decompress to exactly the expected length
+     */
+    private static void decompressBlock(byte[] src, int srcOffset, int srcLength, byte[] dest, int destOffset, int destLength) throws IOException {
+        int srcPosition = srcOffset;
+        int srcEnd = srcOffset + srcLength;
+        int destPosition = destOffset;
+        int destEnd = destOffset + destLength;
+        try {
+            while (true) {
+                int token = src[srcPosition++] & 0xFF;
+
+                //copy the literals
+                int literalLength = token >>> 4;
+                if (literalLength == 15) {
+                    int extra;
+                    do {
+                        extra = src[srcPosition++] & 0xFF;
+                        literalLength += extra;
+                    } while (extra == 255);
+                }
+                if (literalLength > srcEnd - srcPosition || literalLength > destEnd - destPosition) {
+                    throw new IOException("Malformed LZ4 block");
+                }
+                System.arraycopy(src, srcPosition, dest, destPosition, literalLength);
+                srcPosition += literalLength;
+                destPosition += literalLength;
+                if (srcPosition == srcEnd) {//the last sequence only has literals
+                    break;
+                }
+
+                //copy the match
+                if (srcEnd - srcPosition < 2) {
+                    throw new IOException("Malformed LZ4 block");
+                }
+                int matchOffset = (src[srcPosition] & 0xFF) | (src[srcPosition + 1] & 0xFF) << 8;
+                srcPosition += 2;
+                int matchLength = token & 0x0F;
+                if (matchLength == 15) {
+                    int extra;
+                    do {
+                        extra = src[srcPosition++] & 0xFF;
+                        matchLength += extra;
+                    } while (extra == 255);
+                }
+                matchLength += 4;
+                int matchPosition = destPosition - matchOffset;
+                if (matchOffset == 0 || matchPosition < destOffset || matchLength > destEnd - destPosition) {
+                    throw new IOException("Malformed LZ4 block");
+                }
+                if (matchOffset >= matchLength) {
+                    System.arraycopy(dest, matchPosition, dest, destPosition, matchLength);
+                    destPosition += matchLength;
+                } else {//the match overlaps the bytes being written, copy byte by byte to repeat them
+                    int matchEnd = destPosition + matchLength;
+                    while (destPosition < matchEnd) {
+                        dest[destPosition++] = dest[matchPosition++];
+                    }
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Malformed LZ4 block", e);
+        }
+        if (destPosition != destEnd) {
+            throw new IOException("LZ4 block decompressed to " + (destPosition - destOffset) + " bytes, expected " + destLength);
+        }
     }
 }
@@ -1,10 +1,7 @@
 package com.protoxon.mca.compression.decompressors;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.zip.InflaterInputStream;
+import java.nio.ByteBuffer;
 
 public class ZlibDecompressor implements Decompressor {
 
@@ -15,14 +12,27 @@ public class ZlibDecompressor implements Decompressor {
      */
     @Override
     public byte[] decompress(byte[] data) throws IOException {
-        try (InflaterInputStream inflaterInputStream = new InflaterInputStream(new ByteArrayInputStream(data))) {
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            byte[] buffer = new byte[1024];//read 1024 bytes at a time
-            int bytesRead;
-            while ((bytesRead = inflaterInputStream.read(buffer)) != -1) {
-                byteArrayOutputStream.write(buffer, 0, bytesRead);
-            }
-            return byteArrayOutputStream.toByteArray();
-        }
+        return decompress(ByteBuffer.wrap(data));
     }
-}
\ No newline at end of file
+
+    /** decompresses data compressed with Zlib, reading straight from the buffer
+     *
+     * @param data the compressed data
+     * @return byte[] of uncompressed data
+     */
+    @Override
+    public byte[] decompress(ByteBuffer data) throws IOException {
+        //the inflater is reused by the current thread, see InflaterPool
+        return InflaterPool.inflate(InflaterPool.get(false), data);
+    }
+
+    /** decompresses data compressed with Zlib into the scratch buffer of the current thread
+     *
+     * @param data the compressed data
+     * @return a buffer holding the uncompressed data, valid until the next decompression on this thread
+     */
+    @Override
+    public ByteBuffer decompressToBuffer(ByteBuffer data) throws IOException {
+        return InflaterPool.inflateToBuffer(InflaterPool.get(false), data);
+    }
+}
@@ -0,0 +1,110 @@
+package com.protoxon.mca.index;
+
+import com.protoxon.mca.chunk.ChunkBase;
+import com.viaversion.nbt.tag.CompoundTag;
+import com.viaversion.nbt.tag.Tag;
+
+import java.util.Arrays;
+
+/**
+ * A Bloom filter over the block names in the palettes of a chunk.<p>
+ * {@link #mightContain(String)} never returns false for a block the chunk contains, but can return true for a block it
+ * does not contain. With {@value #BITS} bits and {@value #HASHES} hashes a chunk with 30 distinct block names has a false
+ * positive rate of about 0.4%, one with 100 names about 10%. The hash is fixed, so filters can be persisted.
+ */
+public final class ChunkFilter {
+
+    //the size of a filter in bits, a power of 2
+    public static final int BITS = 512;
+    public static final int HASHES = 3;
+    static final int WORDS = BITS / 64;
+
+    private final long[] words;
+
+    /*
+     * @param words, the filter bits, the array is kept
+     */
+    ChunkFilter(long[] words) {
+        if(words.length != WORDS) {
+            throw new IllegalArgumentException("expected " + WORDS + " words but got " + words.length);
+        }
+        this.words = words;
+    }
+
+    /**
+     * Builds the filter of a chunk from the palettes of its sections.
+     *
+     * @param chunk the chunk, only its section palettes are read
+     * @return the filter holding every block name in the chunk
+     */
+    public static ChunkFilter of(ChunkBase chunk) {
+        long[] words = new long[WORDS];
+        chunk.forEachPalette((sectionY, palette) -> {
+            for (CompoundTag entry : palette) {
+                Tag name = entry.get("Name");
+                if(name != null) {
+                    add(words, name.asRawString());
+                }
+            }
+        });
+        return new ChunkFilter(words);
+    }
+
+    /**
+     * Checks whether the chunk might contain a block.
+     *
+     * @param name the namespaced block name, e.g. minecraft:spawner
+     * @return false if the chunk definitely does not contain the block, true if it might
+     */
+    public boolean mightContain(String name) {
+        long hash = hash(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & (BITS - 1);
+            if((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets a copy of the filter bits.
+     *
+     * @return the {@value #WORDS} words of the filter
+     */
+    long[] getWords() {
+        return words.clone();
+    }
+
+    private static void add(long[] words, String name) {
+        long hash = hash(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & (BITS - 1);
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    //64 bit FNV-1a over the chars of the name, split into two hashes for double hashing. Persisted filters depend on it
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash ^ (hash >>> 31);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ChunkFilter && Arrays.equals(words, ((ChunkFilter) o).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+}
@@ -0,0 +1,210 @@
+package com.protoxon.mca.index;
+
+import com.protoxon.mca.Region;
+import com.protoxon.mca.chunk.Chunk;
+import com.viaversion.nbt.io.NBTIO;
+import com.viaversion.nbt.tag.CompoundTag;
+import com.viaversion.nbt.tag.IntArrayTag;
+import com.viaversion.nbt.tag.LongArrayTag;
+import com.viaversion.nbt.tag.NumberTag;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The {@link ChunkFilter}s of all chunks in a region.<p>
+ * A much smaller alternative to {@link RegionIndex}, {@value ChunkFilter#BITS} bits per chunk regardless of its contents,
+ * that answers whether a chunk might contain a block. Searches use it to skip decompressing chunks that definitely do not
+ * contain the block, see {@link Region#findBlock(String, RegionFilter)}. Filters are kept current with
+ * {@link #update(Region)} like the index, and saved next to the region file, see {@link #getSidecarPath(File)}.
+ * All methods are synchronized, so filters can be queried while another thread updates them.
+ */
+public final class RegionFilter extends RegionSummary {
+
+    //increment when the saved format or the filter hash changes, older files are rebuilt
+    public static final int VERSION = 1;
+    private static final String SIDECAR_SUFFIX = ".filter";
+
+    private final ChunkFilter[] filters = new ChunkFilter[1024];
+
+    /**
+     * Creates empty filters, every generated chunk is stale until {@link #update(Region)} is called.
+     */
+    public RegionFilter() {
+    }
+
+    /**
+     * Builds the filters of a region by parsing the palettes of all of its chunks.
+     * @param region the region to build the filters for
+     * @return the filters
+     * @throws IOException if an I/O error occurs or a chunk could not be parsed
+     */
+    public static RegionFilter build(Region region) throws IOException {
+        RegionFilter filter = new RegionFilter();
+        filter.update(region);
+        return filter;
+    }
+
+    /**
+     * Loads the sidecar filters of a region file, or builds new ones if there are none or they use an older format.<p>
+     * The loaded filters are updated, so they are current for the region, but they are not saved.
+     * @param regionFile the region file
+     * @param region the opened region
+     * @return filters that are current for the region
+     * @throws IOException if an I/O error occurs or a chunk could not be parsed
+     */
+    public static RegionFilter loadOrBuild(File regionFile, Region region) throws IOException {
+        File sidecar = getSidecarPath(regionFile).toFile();
+        RegionFilter filter = null;
+        if(sidecar.isFile()) {
+            try {
+                filter = load(sidecar.toPath());
+            } catch (UnsupportedVersionException ignored) {
+                //rebuilt below
+            }
+        }
+        if(filter == null) {
+            return build(region);
+        }
+        filter.update(region);
+        return filter;
+    }
+
+    /**
+     * Gets the path of the sidecar filter file of a region file, the region file name followed by .filter
+     * @param regionFile the region file
+     * @return the path of the filter file in the same directory
+     */
+    public static Path getSidecarPath(File regionFile) {
+        return getSidecarPath(regionFile, SIDECAR_SUFFIX);
+    }
+
+    /**
+     * Checks whether a chunk might contain a block.<p>
+     * Chunks that are not summarized, such as stale ones, are assumed to contain every block.
+     * @param index the index of the chunk in the region, see {@link Region#getChunks()} for how the index is calculated
+     * @param name the namespaced block name, e.g. minecraft:spawner
+     * @return false if the chunk definitely does not contain the block, true if it might
+     */
+    public synchronized boolean mightContain(int index, String name) {
+        ChunkFilter filter = filters[index];
+        return filter == null || filter.mightContain(name);
+    }
+
+    /**
+     * Gets the filter of a chunk.
+     * @param x The x-coordinate of the chunk.
+     * @param z The z-coordinate of the chunk.
+     * @return the filter of the chunk, or null if the chunk is not summarized
+     */
+    @Nullable
+    public synchronized ChunkFilter getFilter(int x, int z) {
+        return filters[(x & 31) + (z & 31) * 32];
+    }
+
+    /**
+     * Gets the summarized chunks that might contain a block.
+     * @param name the namespaced block name, e.g. minecraft:spawner
+     * @return the indices of the chunks in ascending order
+     */
+    public synchronized int[] getCandidateChunks(String name) {
+        IntArrayList chunks = new IntArrayList();
+        for (int index = 0; index < 1024; index++) {
+            if(filters[index] != null && filters[index].mightContain(name)) {
+                chunks.add(index);
+            }
+        }
+        return chunks.toIntArray();
+    }
+
+    /**
+     * Saves the filters as a gzip compressed NBT file.
+     * @param path the file to write, usually {@link #getSidecarPath(File)}
+     * @throws IOException if the file could not be written
+     */
+    public synchronized void save(Path path) throws IOException {
+        NBTIO.writer().named().write(path, toTag(), true);
+    }
+
+    /**
+     * Loads filters saved with {@link #save(Path)}.
+     * @param path the file to read
+     * @return the loaded filters, which may be stale
+     * @throws UnsupportedVersionException if the file was written by another version of the filter format
+     * @throws IOException if the file could not be read or is not valid
+     */
+    public static RegionFilter load(Path path) throws IOException {
+        return fromTag(NBTIO.reader(CompoundTag.class).named().read(path, true));
+    }
+
+    @Override
+    void summarize(int index, Chunk chunk) {
+        filters[index] = ChunkFilter.of(chunk);
+    }
+
+    @Override
+    void remove(int index) {
+        filters[index] = null;
+    }
+
+    //------------------------------private utility methods------------------------------\\
+    /*
+     * Format: {Version: int, Bits: int, Hashes: int, Chunks: int[], Timestamps: int[], Filters: long[]}
+     * Filters holds the words of each chunk in Chunks one after another
+     */
+    private CompoundTag toTag() {
+        IntArrayList chunks = new IntArrayList();
+        IntArrayList chunkTimestamps = new IntArrayList();
+        for (int index = 0; index < 1024; index++) {
+            if(summarized[index]) {
+                chunks.add(index);
+                chunkTimestamps.add(timestamps[index]);
+            }
+        }
+        long[] words = new long[chunks.size() * ChunkFilter.WORDS];
+        for (int i = 0; i < chunks.size(); i++) {
+            System.arraycopy(filters[chunks.getInt(i)].getWords(), 0, words, i * ChunkFilter.WORDS, ChunkFilter.WORDS);
+        }
+        CompoundTag tag = new CompoundTag();
+        tag.putInt("Version", VERSION);
+        tag.putInt("Bits", ChunkFilter.BITS);
+        tag.putInt("Hashes", ChunkFilter.HASHES);
+        tag.put("Chunks", new IntArrayTag(chunks.toIntArray()));
+        tag.put("Timestamps", new IntArrayTag(chunkTimestamps.toIntArray()));
+        tag.put("Filters", new LongArrayTag(words));
+        return tag;
+    }
+
+    private static RegionFilter fromTag(CompoundTag tag) throws IOException {
+        NumberTag version = tag.getNumberTag("Version");
+        NumberTag bits = tag.getNumberTag("Bits");
+        NumberTag hashes = tag.getNumberTag("Hashes");
+        if(version == null || version.asInt() != VERSION || bits == null || bits.asInt() != ChunkFilter.BITS
+                || hashes == null || hashes.asInt() != ChunkFilter.HASHES) {
+            throw new UnsupportedVersionException("unsupported region filter format " + tag.get("Version") + ", " + tag.get("Bits") + " bits, " + tag.get("Hashes") + " hashes");
+        }
+        IntArrayTag chunks = tag.getIntArrayTag("Chunks");
+        IntArrayTag chunkTimestamps = tag.getIntArrayTag("Timestamps");
+        LongArrayTag words = tag.getLongArrayTag("Filters");
+        if(chunks == null || chunkTimestamps == null || words == null || chunkTimestamps.length() != chunks.length()
+                || words.length() != chunks.length() * ChunkFilter.WORDS) {
+            throw new IOException("region filter is missing data or its arrays do not match");
+        }
+        RegionFilter filter = new RegionFilter();
+        for (int i = 0; i < chunks.length(); i++) {
+            int index = chunks.get(i);
+            if(index < 0 || index >= 1024) {
+                throw new IOException("invalid chunk index " + index + " in region filter");
+            }
+            int start = i * ChunkFilter.WORDS;
+            filter.filters[index] = new ChunkFilter(Arrays.copyOfRange(words.getValue(), start, start + ChunkFilter.WORDS));
+            filter.timestamps[index] = chunkTimestamps.get(i);
+            filter.summarized[index] = true;
+        }
+        return filter;
+    }
+}
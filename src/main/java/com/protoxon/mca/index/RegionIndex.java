@@ -0,0 +1,305 @@
+package com.protoxon.mca.index;
+
+import com.protoxon.mca.Region;
+import com.protoxon.mca.chunk.Chunk;
+import com.protoxon.mca.chunk.ChunkBase;
+import com.viaversion.nbt.io.NBTIO;
+import com.viaversion.nbt.tag.CompoundTag;
+import com.viaversion.nbt.tag.IntArrayTag;
+import com.viaversion.nbt.tag.ListTag;
+import com.viaversion.nbt.tag.LongArrayTag;
+import com.viaversion.nbt.tag.NumberTag;
+import com.viaversion.nbt.tag.StringTag;
+import com.viaversion.nbt.tag.Tag;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An index of which block names each chunk section of a region contains.<p>
+ * For every chunk the index stores a section mask per block name, see {@link ChunkBase#sectionBit(int)}, together with
+ * the chunks timestamp from the region header. Chunks whose timestamp changed are detected as stale and reindexed by
+ * {@link #update(Region)}, so keeping the index current only costs parsing the chunks that were modified.
+ * The index is saved as a gzip compressed NBT file next to the region file, see {@link #getSidecarPath(File)}.
+ * <pre>{@code
+ * RegionIndex index = RegionIndex.loadOrBuild(regionFile, region);
+ * ArrayList<Block> spawners = region.findBlock("minecraft:spawner", index);
+ * index.save(RegionIndex.getSidecarPath(regionFile));
+ * }</pre>
+ * All methods are synchronized, so an index can be queried while another thread updates it.
+ *
+ * @see RegionFilter
+ */
+public final class RegionIndex extends RegionSummary {
+
+    //increment when the saved format changes, older files are rebuilt
+    public static final int VERSION = 1;
+    private static final String SIDECAR_SUFFIX = ".index";
+    private static final int[] NO_NAMES = new int[0];
+    private static final long[] NO_MASKS = new long[0];
+
+    //block names by id, ids are shared by all chunks of the index
+    private final List<String> names = new ArrayList<>();
+    private final Object2IntOpenHashMap<String> nameIds = new Object2IntOpenHashMap<>();
+    //the name ids and matching section masks of each chunk, null if the chunk is not indexed
+    private final int[][] chunkNames = new int[1024][];
+    private final long[][] chunkMasks = new long[1024][];
+    //section masks by name id while indexing a chunk, all zero in between
+    private long[] scratchMasks = new long[256];
+
+    /**
+     * Creates an empty index, every generated chunk is stale until {@link #update(Region)} is called.
+     */
+    public RegionIndex() {
+        nameIds.defaultReturnValue(-1);
+    }
+
+    /**
+     * Builds the index of a region by parsing the palettes of all of its chunks.
+     * @param region the region to index
+     * @return the index
+     * @throws IOException if an I/O error occurs or a chunk could not be parsed
+     */
+    public static RegionIndex build(Region region) throws IOException {
+        RegionIndex index = new RegionIndex();
+        index.update(region);
+        return index;
+    }
+
+    /**
+     * Loads the sidecar index of a region file, or builds a new one if there is none or it uses an older format.<p>
+     * The loaded index is updated, so it is current for the region, but it is not saved.
+     * @param regionFile the region file
+     * @param region the opened region
+     * @return an index that is current for the region
+     * @throws IOException if an I/O error occurs or a chunk could not be parsed
+     */
+    public static RegionIndex loadOrBuild(File regionFile, Region region) throws IOException {
+        File sidecar = getSidecarPath(regionFile).toFile();
+        RegionIndex index = null;
+        if(sidecar.isFile()) {
+            try {
+                index = load(sidecar.toPath());
+            } catch (UnsupportedVersionException ignored) {
+                //rebuilt below
+            }
+        }
+        if(index == null) {
+            return build(region);
+        }
+        index.update(region);
+        return index;
+    }
+
+    /**
+     * Gets the path of the sidecar index file of a region file, the region file name followed by .index
+     * @param regionFile the region file
+     * @return the path of the index file in the same directory
+     */
+    public static Path getSidecarPath(File regionFile) {
+        return getSidecarPath(regionFile, SIDECAR_SUFFIX);
+    }
+
+    /**
+     * Gets the sections of a chunk containing the block name.
+     * @param x The x-coordinate of the chunk.
+     * @param z The z-coordinate of the chunk.
+     * @param name the namespaced block name, e.g. minecraft:chest
+     * @return the section mask, see {@link ChunkBase#sectionBit(int)}, 0 if no section contains the block or the chunk is not indexed
+     */
+    public synchronized long getSectionMask(int x, int z, String name) {
+        int chunk = (x & 31) + (z & 31) * 32;
+        int nameId = nameIds.getInt(name);
+        int[] ids = chunkNames[chunk];
+        if(nameId == -1 || ids == null) {
+            return 0;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if(ids[i] == nameId) {
+                return chunkMasks[chunk][i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the chunks containing the block name.
+     * @param name the namespaced block name, e.g. minecraft:chest
+     * @return the indices of the chunks in ascending order, see {@link Region#getChunks()} for how the index is calculated
+     */
+    public synchronized int[] getChunks(String name) {
+        int nameId = nameIds.getInt(name);
+        if(nameId == -1) {
+            return NO_NAMES;
+        }
+        IntArrayList chunks = new IntArrayList();
+        for (int index = 0; index < 1024; index++) {
+            int[] ids = chunkNames[index];
+            if(ids != null) {
+                for (int id : ids) {
+                    if(id == nameId) {
+                        chunks.add(index);
+                        break;
+                    }
+                }
+            }
+        }
+        return chunks.toIntArray();
+    }
+
+    /**
+     * Gets the block names the index has seen.<p>
+     * Names of blocks that have since been removed from all chunks are kept until the index is rebuilt.
+     * @return an unmodifiable list of the block names
+     */
+    public synchronized List<String> getBlockNames() {
+        return Collections.unmodifiableList(new ArrayList<>(names));
+    }
+
+    /**
+     * Saves the index as a gzip compressed NBT file.
+     * @param path the file to write, usually {@link #getSidecarPath(File)}
+     * @throws IOException if the file could not be written
+     */
+    public synchronized void save(Path path) throws IOException {
+        NBTIO.writer().named().write(path, toTag(), true);
+    }
+
+    /**
+     * Loads an index saved with {@link #save(Path)}.
+     * @param path the file to read
+     * @return the loaded index, which may be stale
+     * @throws UnsupportedVersionException if the file was written by another version of the index format
+     * @throws IOException if the file could not be read or is not a valid index
+     */
+    public static RegionIndex load(Path path) throws IOException {
+        return fromTag(NBTIO.reader(CompoundTag.class).named().read(path, true));
+    }
+
+    //------------------------------private utility methods------------------------------\\
+    @Override
+    void summarize(int index, Chunk chunk) {
+        IntArrayList ids = new IntArrayList();
+        try {
+            collectMasks(chunk, ids);
+            int[] nameIds = ids.toIntArray();
+            long[] masks = new long[nameIds.length];
+            for (int i = 0; i < nameIds.length; i++) {
+                masks[i] = scratchMasks[nameIds[i]];
+            }
+            chunkNames[index] = nameIds;
+            chunkMasks[index] = masks;
+        } finally {
+            for (int i = 0; i < ids.size(); i++) {
+                scratchMasks[ids.getInt(i)] = 0;//leave the scratch array cleared for the next chunk
+            }
+        }
+    }
+
+    private void collectMasks(Chunk chunk, IntArrayList ids) {
+        chunk.forEachPalette((sectionY, palette) -> {
+            long bit = ChunkBase.sectionBit(sectionY);
+            for (CompoundTag entry : palette) {
+                Tag name = entry.get("Name");
+                if(name == null) {
+                    continue;
+                }
+                int id = getNameId(name.asRawString());
+                if(id >= scratchMasks.length) {
+                    scratchMasks = Arrays.copyOf(scratchMasks, Math.max(id + 1, scratchMasks.length * 2));
+                }
+                if(scratchMasks[id] == 0) {//first section of the chunk containing the block
+                    ids.add(id);
+                }
+                scratchMasks[id] |= bit;
+            }
+        });
+    }
+
+    @Override
+    void remove(int index) {
+        chunkNames[index] = null;
+        chunkMasks[index] = null;
+    }
+
+    private int getNameId(String name) {
+        int id = nameIds.getInt(name);
+        if(id == -1) {
+            id = names.size();
+            names.add(name);
+            nameIds.put(name, id);
+        }
+        return id;
+    }
+
+    /*
+     * Format: {Version: int, Names: [string], Chunks: [{Index: int, Timestamp: int, Names: int[], Masks: long[]}]}
+     */
+    private CompoundTag toTag() {
+        CompoundTag tag = new CompoundTag();
+        tag.putInt("Version", VERSION);
+        ListTag<StringTag> namesTag = new ListTag<>(StringTag.class);
+        for (String name : names) {
+            namesTag.add(new StringTag(name));
+        }
+        tag.put("Names", namesTag);
+        ListTag<CompoundTag> chunks = new ListTag<>(CompoundTag.class);
+        for (int index = 0; index < 1024; index++) {
+            if(!summarized[index]) {
+                continue;
+            }
+            CompoundTag chunk = new CompoundTag();
+            chunk.putInt("Index", index);
+            chunk.putInt("Timestamp", timestamps[index]);
+            chunk.put("Names", new IntArrayTag(chunkNames[index]));
+            chunk.put("Masks", new LongArrayTag(chunkMasks[index]));
+            chunks.add(chunk);
+        }
+        tag.put("Chunks", chunks);
+        return tag;
+    }
+
+    private static RegionIndex fromTag(CompoundTag tag) throws IOException {
+        NumberTag version = tag.getNumberTag("Version");
+        if(version == null || version.asInt() != VERSION) {
+            throw new UnsupportedVersionException("unsupported region index version " + (version == null ? "none" : version.asInt()));
+        }
+        RegionIndex index = new RegionIndex();
+        ListTag<StringTag> namesTag = tag.getListTag("Names", StringTag.class);
+        ListTag<CompoundTag> chunks = tag.getListTag("Chunks", CompoundTag.class);
+        if(namesTag == null || chunks == null) {
+            throw new IOException("region index is missing its Names or Chunks");
+        }
+        for (StringTag name : namesTag) {
+            index.getNameId(name.getValue());
+        }
+        for (CompoundTag chunk : chunks) {
+            NumberTag chunkIndex = chunk.getNumberTag("Index");
+            NumberTag timestamp = chunk.getNumberTag("Timestamp");
+            IntArrayTag ids = chunk.getIntArrayTag("Names");
+            LongArrayTag masks = chunk.getLongArrayTag("Masks");
+            if(chunkIndex == null || timestamp == null || ids == null || masks == null
+                    || chunkIndex.asInt() < 0 || chunkIndex.asInt() >= 1024 || ids.length() != masks.length()) {
+                throw new IOException("invalid chunk entry in region index: " + chunk);
+            }
+            for (int id : ids.getValue()) {
+                if(id < 0 || id >= index.names.size()) {
+                    throw new IOException("invalid block name id " + id + " in region index");
+                }
+            }
+            int i = chunkIndex.asInt();
+            index.chunkNames[i] = ids.length() == 0 ? NO_NAMES : ids.getValue();
+            index.chunkMasks[i] = masks.length() == 0 ? NO_MASKS : masks.getValue();
+            index.timestamps[i] = timestamp.asInt();
+            index.summarized[i] = true;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,110 @@
+package com.protoxon.mca.index;
+
+import com.protoxon.mca.Region;
+import com.protoxon.mca.chunk.Chunk;
+import com.viaversion.nbt.io.TagProjection;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Base of the summaries kept for each chunk of a region, such as {@link RegionIndex} and {@link RegionFilter}.<p>
+ * Every summarized chunk records its timestamp from the region header. Chunks that were generated, rewritten or deleted
+ * since are stale, and {@link #update(Region)} summarizes them again from the palettes of their sections.
+ * All methods are synchronized on the summary.
+ */
+abstract class RegionSummary {
+
+    //the tags needed to summarize a chunk
+    private static final TagProjection PALETTES = TagProjection.of("sections[].Y", "sections[].block_states.palette");
+
+    final int[] timestamps = new int[1024];
+    final boolean[] summarized = new boolean[1024];
+
+    /**
+     * Summarizes every chunk that changed since it was summarized.<p>
+     * Stale chunks are read in the order they are stored in the file, parsing only their section palettes.
+     * @param region the region the summary belongs to
+     * @return the number of chunks that were summarized or removed
+     * @throws IOException if an I/O error occurs or a chunk could not be parsed
+     */
+    public synchronized int update(Region region) throws IOException {
+        int[] stale = getStaleChunks(region);
+        ArrayList<Integer> offsets = region.getOffsets();
+        Integer[] order = new Integer[stale.length];
+        for (int i = 0; i < stale.length; i++) {
+            order[i] = stale[i];
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(offsets.get(a), offsets.get(b)));//read sequentially
+
+        for (int index : order) {
+            int x = index & 31;
+            int z = index >> 5;
+            Chunk chunk = region.getSectorCount(x, z) == 0 ? null : region.getChunk(x, z, PALETTES);
+            if(chunk == null) {//deleted
+                remove(index);
+                summarized[index] = false;
+                timestamps[index] = 0;
+                continue;
+            }
+            summarize(index, chunk);
+            summarized[index] = true;
+            timestamps[index] = region.getTimestamp(x, z);
+        }
+        return stale.length;
+    }
+
+    /**
+     * Gets the chunks whose summary does not match the region.
+     * @param region the region the summary belongs to
+     * @return the indices of the stale chunks, see {@link Region#getChunks()} for how the index is calculated
+     */
+    public synchronized int[] getStaleChunks(Region region) {
+        IntArrayList stale = new IntArrayList();
+        for (int index = 0; index < 1024; index++) {
+            int x = index & 31;
+            int z = index >> 5;
+            boolean generated = region.getSectorCount(x, z) != 0;
+            if(generated != summarized[index] || (generated && timestamps[index] != region.getTimestamp(x, z))) {
+                stale.add(index);
+            }
+        }
+        return stale.toIntArray();
+    }
+
+    /**
+     * Checks whether any chunk of the region changed since it was summarized.
+     * @param region the region the summary belongs to
+     * @return true if {@link #update(Region)} would summarize any chunk
+     */
+    public boolean isStale(Region region) {
+        return getStaleChunks(region).length != 0;
+    }
+
+    /**
+     * Summarizes a chunk, replacing its previous summary.
+     * @param index the index of the chunk in the region
+     * @param chunk the chunk, only its section palettes are parsed
+     */
+    abstract void summarize(int index, Chunk chunk);
+
+    /**
+     * Removes the summary of a deleted chunk.
+     * @param index the index of the chunk in the region
+     */
+    abstract void remove(int index);
+
+    /**
+     * Gets the path of a sidecar file next to a region file.
+     * @param regionFile the region file
+     * @param suffix the suffix appended to the region file name
+     * @return the path of the sidecar file in the same directory
+     */
+    static Path getSidecarPath(File regionFile, String suffix) {
+        return regionFile.toPath().resolveSibling(regionFile.getName() + suffix);
+    }
+}
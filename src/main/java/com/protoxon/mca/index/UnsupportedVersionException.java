@@ -0,0 +1,16 @@
+package com.protoxon.mca.index;
+
+import java.io.IOException;
+
+/**
+ * Thrown when loading a summary written in a different format version, the summary should be rebuilt.
+ */
+public class UnsupportedVersionException extends IOException {
+
+    /**
+     * @param message the detail message
+     */
+    public UnsupportedVersionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,44 @@
+package com.protoxon.mca.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a region file with positional {@link FileChannel} reads.<p>
+ * Positional reads never move a shared file pointer, so a single reader can be used by many threads at once.
+ */
+public class FileRegionReader implements RegionReader {
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+
+    /**
+     * @param file a RandomAccessFile representing the region
+     */
+    public FileRegionReader(RandomAccessFile file) {
+        this.file = file;
+        this.channel = file.getChannel();
+    }
+
+    @Override
+    public ByteBuffer read(long position, int length) throws IOException {
+        length = (int) Math.max(0, Math.min(length, channel.size() - position));//clamp the read to the end of the file
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int bytesRead = channel.read(buffer, position + buffer.position());
+            if (bytesRead < 0) {
+                throw new EOFException("unexpected end of region file at " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,46 @@
+package com.protoxon.mca.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a region file by mapping it into memory with {@link FileChannel#map}.<p>
+ * Reads return slices of the mapping, so chunk data is served straight from the page cache without seeking or copying it onto the heap.
+ */
+public class MappedRegionReader implements RegionReader {
+
+    private final MappedByteBuffer mappedFile;
+
+    /**
+     * Maps the region file into memory.<p>
+     * The file is closed once it has been mapped, the mapping stays valid until it is garbage collected.
+     *
+     * @param file a {@link File} object representing the region file to be mapped.
+     * @throws IOException if the file could not be opened or mapped
+     */
+    public MappedRegionReader(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            mappedFile = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Override
+    public ByteBuffer read(long position, int length) {
+        int start = (int) Math.min(position, mappedFile.capacity());
+        int end = (int) Math.min(position + length, mappedFile.capacity());//clamp the read to the end of the file
+        ByteBuffer slice = mappedFile.duplicate();//duplicate so each read has its own position and limit
+        slice.position(start);
+        slice.limit(end);
+        return slice.slice();
+    }
+
+    @Override
+    public void close() {
+        //the file was closed after mapping, the mapping itself is released by the garbage collector
+    }
+}
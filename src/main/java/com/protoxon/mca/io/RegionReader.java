@@ -0,0 +1,26 @@
+package com.protoxon.mca.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Interface for all region file readers<p>
+ * used by the {@link com.protoxon.mca.Region} class to fetch the header and chunk sectors from a region file
+ *
+ * @see FileRegionReader
+ * @see MappedRegionReader
+ */
+public interface RegionReader extends Closeable {
+
+    /**
+     * Reads a range of bytes from the region file.<p>
+     * If the range extends past the end of the file the returned buffer only holds the bytes up to the end of the file.
+     *
+     * @param position the offset in bytes from the start of the file
+     * @param length the number of bytes to read
+     * @return a {@link ByteBuffer} positioned at the first byte of the range
+     * @throws IOException if an I/O error occurs while reading from the region file
+     */
+    ByteBuffer read(long position, int length) throws IOException;
+}
@@ -0,0 +1,694 @@
+package com.viaversion.nbt.io;
+
+import com.viaversion.nbt.limiter.TagLimiter;
+import com.viaversion.nbt.tag.ByteArrayTag;
+import com.viaversion.nbt.tag.ByteTag;
+import com.viaversion.nbt.tag.CompoundTag;
+import com.viaversion.nbt.tag.DoubleTag;
+import com.viaversion.nbt.tag.FloatTag;
+import com.viaversion.nbt.tag.IntArrayTag;
+import com.viaversion.nbt.tag.IntTag;
+import com.viaversion.nbt.tag.ListTag;
+import com.viaversion.nbt.tag.LongArrayTag;
+import com.viaversion.nbt.tag.LongTag;
+import com.viaversion.nbt.tag.ShortTag;
+import com.viaversion.nbt.tag.StringTag;
+import com.viaversion.nbt.tag.Tag;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * NBT reader working directly on a {@link ByteBuffer} cursor instead of a {@link java.io.DataInput}.
+ * <p>
+ * Tag ids are dispatched with a switch instead of through the {@link TagRegistry} suppliers, arrays are copied in bulk
+ * through {@link java.nio.LongBuffer}/{@link java.nio.IntBuffer} views, and ASCII strings are decoded without going through
+ * a char array. The same cursor also drives {@link TagVisitor}s. Instances are not thread-safe and are meant to be used
+ * for a single read.
+ * <p>
+ * All limiter accounting goes through the count methods, which {@link TrustedByteBufferTagReader} overrides with empty
+ * ones. Use {@link #create(ByteBuffer, TagLimiter, StringCache, boolean)} to get the reader matching a nullable limiter.
+ *
+ * @see NBTIO#readTag(ByteBuffer, TagLimiter, boolean, Class)
+ */
+class ByteBufferTagReader {
+    private final ByteBuffer source;
+    private final ByteBuffer buffer;
+    // Only null for the trusted reader, which does not use it
+    private final @Nullable TagLimiter tagLimiter;
+    private final StringCache stringCache;
+    // Whether compounds are read as lazy compounds, only supported for heap buffers that will not change
+    private final boolean lazy;
+    // Scratch array for strings of buffers without an accessible backing array
+    private byte[] stringBuffer;
+
+    ByteBufferTagReader(final ByteBuffer buffer, final TagLimiter tagLimiter) {
+        this(buffer, tagLimiter, StringCache.none(), false);
+    }
+
+    ByteBufferTagReader(final ByteBuffer buffer, @Nullable final TagLimiter tagLimiter, final StringCache stringCache, final boolean lazy) {
+        this.source = buffer;
+        this.buffer = buffer.order() == ByteOrder.BIG_ENDIAN ? buffer : buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        this.tagLimiter = tagLimiter;
+        this.stringCache = stringCache;
+        this.lazy = lazy;
+    }
+
+    /**
+     * Creates a reader counting against the given limiter, or a {@link TrustedByteBufferTagReader} if it is null.
+     */
+    static ByteBufferTagReader create(final ByteBuffer buffer, @Nullable final TagLimiter tagLimiter, final StringCache stringCache, final boolean lazy) {
+        return tagLimiter != null ? new ByteBufferTagReader(buffer, tagLimiter, stringCache, lazy) : new TrustedByteBufferTagReader(buffer, stringCache, lazy);
+    }
+
+    /**
+     * Reads a named or unnamed root tag with lazy compounds, leaving the source buffer positioned after it.
+     * The remaining bytes of the source are copied first, so the tags stay valid when the source is reused.
+     */
+    static <T extends Tag> T readLazyRoot(final ByteBuffer source, @Nullable final TagLimiter tagLimiter, final StringCache stringCache, final boolean named, final Class<T> expectedTagType, final TagProjection projection) throws IOException {
+        final byte[] data = new byte[source.remaining()];
+        source.duplicate().get(data);
+        final ByteBuffer buffer = ByteBuffer.wrap(data);
+        final T tag = create(buffer, tagLimiter, stringCache, true).readRoot(named, expectedTagType, projection);
+        source.position(source.position() + buffer.position());
+        return tag;
+    }
+
+    /**
+     * Reads a named or unnamed root tag, leaving the source buffer positioned after it.
+     */
+    <T extends Tag> T readRoot(final boolean named, final Class<T> expectedTagType, final TagProjection projection) throws IOException {
+        try {
+            final int id = this.buffer.get();
+            if (expectedTagType != null && expectedTagType != TagRegistry.getClassFor(id)) {
+                final Class<? extends Tag> type = TagRegistry.getClassFor(id);
+                throw new IOException("Expected tag type " + expectedTagType.getSimpleName() + " but got " + (type != null ? type.getSimpleName() : id));
+            }
+
+            if (named) {
+                this.skip(this.buffer.getShort() & 0xFFFF); // Skip name
+            }
+
+            //noinspection unchecked
+            final T tag = (T) this.read(id, 0, projection);
+            this.source.position(this.buffer.position());
+            return tag;
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new EOFException("Unexpected end of NBT data");
+        }
+    }
+
+    /**
+     * Visits a named or unnamed root tag, leaving the source buffer positioned after it.
+     */
+    void visitRoot(final boolean named, final TagVisitor visitor) throws IOException {
+        try {
+            final int id = this.buffer.get();
+            if (named) {
+                this.skip(this.buffer.getShort() & 0xFFFF); // Skip name
+            }
+
+            this.visit(id, 0, visitor);
+            this.source.position(this.buffer.position());
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new EOFException("Unexpected end of NBT data");
+        }
+    }
+
+    void visit(final int id, final int nestingLevel, final TagVisitor visitor) throws IOException {
+        switch (id) {
+            case ByteTag.ID:
+                this.countByte();
+                visitor.visitByte(this.buffer.get());
+                break;
+            case ShortTag.ID:
+                this.countShort();
+                visitor.visitShort(this.buffer.getShort());
+                break;
+            case IntTag.ID:
+                this.countInt();
+                visitor.visitInt(this.buffer.getInt());
+                break;
+            case LongTag.ID:
+                this.countLong();
+                visitor.visitLong(this.buffer.getLong());
+                break;
+            case FloatTag.ID:
+                this.countFloat();
+                visitor.visitFloat(this.buffer.getFloat());
+                break;
+            case DoubleTag.ID:
+                this.countDouble();
+                visitor.visitDouble(this.buffer.getDouble());
+                break;
+            case ByteArrayTag.ID: {
+                this.countInt();
+                final int length = this.readArrayLength(Byte.BYTES);
+                this.countBytes(length);
+                visitor.visitByteArray(this.view(length));
+                this.skip(length);
+                break;
+            }
+            case StringTag.ID: {
+                final String value = this.readString();
+                this.countBytes(2 * value.length());
+                visitor.visitString(value);
+                break;
+            }
+            case ListTag.ID: {
+                this.checkLevel(nestingLevel);
+                this.countBytes(Byte.BYTES + Integer.BYTES);
+                final int elementId = this.buffer.get();
+                if (elementId != TagRegistry.END && TagRegistry.getClassFor(elementId) == null) {
+                    throw new IOException("Unknown tag ID in ListTag: " + elementId);
+                }
+                final int count = Math.max(this.buffer.getInt(), 0);
+                if (!visitor.visitListStart(elementId, count)) {
+                    this.skipElements(elementId, count, nestingLevel);
+                    break;
+                }
+                for (int index = 0; index < count; index++) {
+                    this.visit(elementId, nestingLevel + 1, visitor);
+                }
+                visitor.visitListEnd();
+                break;
+            }
+            case CompoundTag.ID: {
+                this.checkLevel(nestingLevel);
+                visitor.visitCompoundStart();
+                while (true) {
+                    this.countByte();
+                    final int entryId = this.buffer.get();
+                    if (entryId == TagRegistry.END) {
+                        break;
+                    }
+
+                    final String name = this.readString();
+                    this.countBytes(2 * name.length());
+                    if (visitor.visitKey(name, entryId)) {
+                        this.visit(entryId, nestingLevel + 1, visitor);
+                    } else {
+                        this.skip(entryId, nestingLevel + 1);
+                    }
+                }
+                visitor.visitCompoundEnd();
+                break;
+            }
+            case IntArrayTag.ID: {
+                this.countInt();
+                final int length = this.readArrayLength(Integer.BYTES);
+                this.countBytes(Integer.BYTES * length);
+                visitor.visitIntArray(this.view(Integer.BYTES * length).asIntBuffer());
+                this.skip(Integer.BYTES * length);
+                break;
+            }
+            case LongArrayTag.ID: {
+                this.countInt();
+                final int length = this.readArrayLength(Long.BYTES);
+                this.countBytes(Long.BYTES * length);
+                visitor.visitLongArray(this.view(Long.BYTES * length).asLongBuffer());
+                this.skip(Long.BYTES * length);
+                break;
+            }
+            default:
+                throw new IOException("Failed to create tag.", new IllegalArgumentException("Could not find tag with ID \"" + id + "\"."));
+        }
+    }
+
+    /**
+     * Returns a read-only view of the next bytes, without advancing the position.
+     */
+    private ByteBuffer view(final int length) {
+        final ByteBuffer view = this.buffer.slice();
+        view.limit(length);
+        return view.asReadOnlyBuffer();
+    }
+
+    Tag read(final int id, final int nestingLevel, final TagProjection projection) throws IOException {
+        if (!projection.isAll()) {
+            if (id == CompoundTag.ID) {
+                return this.readCompound(nestingLevel, projection);
+            } else if (id == ListTag.ID) {
+                return this.readList(nestingLevel, projection);
+            }
+        }
+        return this.read(id, nestingLevel);
+    }
+
+    Tag read(final int id, final int nestingLevel) throws IOException {
+        switch (id) {
+            case ByteTag.ID:
+                this.countByte();
+                return new ByteTag(this.buffer.get());
+            case ShortTag.ID:
+                this.countShort();
+                return new ShortTag(this.buffer.getShort());
+            case IntTag.ID:
+                this.countInt();
+                return new IntTag(this.buffer.getInt());
+            case LongTag.ID:
+                this.countLong();
+                return new LongTag(this.buffer.getLong());
+            case FloatTag.ID:
+                this.countFloat();
+                return new FloatTag(this.buffer.getFloat());
+            case DoubleTag.ID:
+                this.countDouble();
+                return new DoubleTag(this.buffer.getDouble());
+            case ByteArrayTag.ID:
+                return this.readByteArray();
+            case StringTag.ID:
+                return this.readStringTag();
+            case ListTag.ID:
+                return this.readList(nestingLevel, TagProjection.all());
+            case CompoundTag.ID:
+                return this.readCompound(nestingLevel, TagProjection.all());
+            case IntArrayTag.ID:
+                return this.readIntArray();
+            case LongArrayTag.ID:
+                return this.readLongArray();
+            default:
+                throw new IOException("Failed to create tag.", new IllegalArgumentException("Could not find tag with ID \"" + id + "\"."));
+        }
+    }
+
+    CompoundTag readCompound(final int nestingLevel, final TagProjection projection) throws IOException {
+        if (this.lazy && projection.isAll()) {
+            return this.readLazyCompound(nestingLevel);
+        }
+
+        this.checkLevel(nestingLevel);
+        final int newNestingLevel = nestingLevel + 1;
+        final CompoundTag compoundTag = new CompoundTag();
+        final Map<String, Tag> value = compoundTag.getValue();
+        while (true) {
+            this.countByte();
+            final int id = this.buffer.get();
+            if (id == TagRegistry.END) {
+                break;
+            }
+
+            final String name = this.readString();
+            this.countBytes(2 * name.length());
+            final TagProjection entryProjection = projection.get(name);
+            if (entryProjection == null) {
+                this.skip(id, newNestingLevel);
+                continue;
+            }
+            value.put(name, this.read(id, newNestingLevel, entryProjection));
+        }
+        return compoundTag;
+    }
+
+    /**
+     * Records the offsets of the compound entries while skipping over them, see {@link LazyCompoundMap}.
+     */
+    private CompoundTag readLazyCompound(final int nestingLevel) throws IOException {
+        this.checkLevel(nestingLevel);
+        final int newNestingLevel = nestingLevel + 1;
+        final LazyCompoundMap value = new LazyCompoundMap(this.buffer.array(), nestingLevel, this.tagLimiter, this.stringCache);
+        while (true) {
+            this.countByte();
+            final int id = this.buffer.get();
+            if (id == TagRegistry.END) {
+                break;
+            }
+
+            final String name = this.readString();
+            this.countBytes(2 * name.length());
+            value.add(name, id, this.buffer.arrayOffset() + this.buffer.position());
+            this.skip(id, newNestingLevel);
+        }
+        return CompoundTag.wrap(value);
+    }
+
+    ListTag<?> readList(final int nestingLevel, final TagProjection projection) throws IOException {
+        this.checkLevel(nestingLevel);
+        this.countBytes(Byte.BYTES + Integer.BYTES);
+
+        final int id = this.buffer.get();
+        Class<? extends Tag> type = null;
+        if (id != TagRegistry.END) {
+            type = TagRegistry.getClassFor(id);
+            if (type == null) {
+                throw new IOException("Unknown tag ID in ListTag: " + id);
+            }
+        }
+        return this.readList(id, type, nestingLevel, projection);
+    }
+
+    private <T extends Tag> ListTag<T> readList(final int id, final Class<T> type, final int nestingLevel, final TagProjection projection) throws IOException {
+        final ListTag<T> listTag = new ListTag<>(type);
+        final int count = this.buffer.getInt();
+        if (this.readNumberList(listTag, id, count)) {
+            return listTag;
+        }
+
+        final int newNestingLevel = nestingLevel + 1;
+        for (int index = 0; index < count; index++) {
+            //noinspection unchecked
+            listTag.add((T) this.read(id, newNestingLevel, projection));
+        }
+        return listTag;
+    }
+
+    /**
+     * Reads the elements of a number list in bulk, straight into its primitive backing list.
+     *
+     * @return whether the list is a number list and was read
+     */
+    private boolean readNumberList(final ListTag<?> listTag, final int id, final int count) throws IOException {
+        final int elementSize = TagRegistry.fixedSize(id);
+        if (elementSize <= 0) {
+            return false;
+        }
+
+        final int length = Math.max(count, 0); // Like the DataInput path, negative counts are read as empty lists
+        if ((long) length * elementSize > this.buffer.remaining()) {
+            throw new EOFException("List length " + length + " exceeds the remaining NBT data");
+        }
+        switch (id) {
+            case ByteTag.ID: {
+                final byte[] values = new byte[length];
+                this.buffer.get(values);
+                listTag.asByteList().addElements(0, values);
+                break;
+            }
+            case ShortTag.ID: {
+                final short[] values = new short[length];
+                this.buffer.asShortBuffer().get(values);
+                listTag.asShortList().addElements(0, values);
+                break;
+            }
+            case IntTag.ID: {
+                final int[] values = new int[length];
+                this.buffer.asIntBuffer().get(values);
+                listTag.asIntList().addElements(0, values);
+                break;
+            }
+            case LongTag.ID: {
+                final long[] values = new long[length];
+                this.buffer.asLongBuffer().get(values);
+                listTag.asLongList().addElements(0, values);
+                break;
+            }
+            case FloatTag.ID: {
+                final float[] values = new float[length];
+                this.buffer.asFloatBuffer().get(values);
+                listTag.asFloatList().addElements(0, values);
+                break;
+            }
+            case DoubleTag.ID: {
+                final double[] values = new double[length];
+                this.buffer.asDoubleBuffer().get(values);
+                listTag.asDoubleList().addElements(0, values);
+                break;
+            }
+            default:
+                return false;
+        }
+        this.countElements(id, length);
+        if (id != ByteTag.ID) {
+            this.skip((long) length * elementSize);
+        }
+        return true;
+    }
+
+    ByteArrayTag readByteArray() throws IOException {
+        this.countInt();
+        final int length = this.readArrayLength(Byte.BYTES);
+        this.countBytes(length);
+        final byte[] value = new byte[length];
+        this.buffer.get(value);
+        return new ByteArrayTag(value);
+    }
+
+    IntArrayTag readIntArray() throws IOException {
+        this.countInt();
+        final int length = this.readArrayLength(Integer.BYTES);
+        this.countBytes(Integer.BYTES * length);
+        final int[] value = new int[length];
+        this.buffer.asIntBuffer().get(value);
+        this.skip(Integer.BYTES * length);
+        return new IntArrayTag(value);
+    }
+
+    LongArrayTag readLongArray() throws IOException {
+        this.countInt();
+        final int length = this.readArrayLength(Long.BYTES);
+        this.countBytes(Long.BYTES * length);
+        final long[] value = new long[length];
+        this.buffer.asLongBuffer().get(value);
+        this.skip(Long.BYTES * length);
+        return new LongArrayTag(value);
+    }
+
+    /**
+     * Reads an array length and checks it against the remaining bytes before anything is allocated.
+     */
+    private int readArrayLength(final int elementSize) throws IOException {
+        final int length = this.buffer.getInt();
+        if (length < 0) {
+            throw new IOException("Negative array length " + length);
+        }
+        if ((long) length * elementSize > this.buffer.remaining()) {
+            throw new EOFException("Array length " + length + " exceeds the remaining NBT data");
+        }
+        return length;
+    }
+
+    StringTag readStringTag() throws IOException {
+        final String value = this.readString();
+        this.countBytes(2 * value.length()); // More or less, ignoring the length reading
+        return new StringTag(value);
+    }
+
+    /**
+     * Reads a length prefixed modified UTF-8 string, as written by {@link java.io.DataOutput#writeUTF(String)}.
+     */
+    String readString() throws IOException {
+        final int length = this.buffer.getShort() & 0xFFFF;
+        if (length > this.buffer.remaining()) {
+            throw new EOFException("String length " + length + " exceeds the remaining NBT data");
+        }
+
+        final byte[] bytes;
+        final int offset;
+        if (this.buffer.hasArray()) {
+            bytes = this.buffer.array();
+            offset = this.buffer.arrayOffset() + this.buffer.position();
+        } else {
+            if (this.stringBuffer == null || this.stringBuffer.length < length) {
+                this.stringBuffer = new byte[Math.max(length, 64)];
+            }
+            bytes = this.stringBuffer;
+            offset = 0;
+            this.buffer.duplicate().get(bytes, 0, length);
+        }
+        this.skip(length);
+        return this.stringCache.get(bytes, offset, length);
+    }
+
+    static String decodeString(final byte[] bytes, final int offset, final int length) throws UTFDataFormatException {
+        final int end = offset + length;
+        int index = offset;
+        while (index < end && bytes[index] >= 0) {
+            index++;
+        }
+        if (index == end) {
+            // ASCII only, a straight byte copy with compact strings
+            return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        return decodeModifiedUtf8(bytes, offset, length, index - offset);
+    }
+
+    /**
+     * Decodes modified UTF-8, where the first {@code asciiPrefix} bytes are already known to be ASCII.
+     */
+    private static String decodeModifiedUtf8(final byte[] bytes, final int offset, final int length, final int asciiPrefix) throws UTFDataFormatException {
+        final char[] chars = new char[length];
+        int count = 0;
+        for (; count < asciiPrefix; count++) {
+            chars[count] = (char) bytes[offset + count];
+        }
+
+        int index = offset + asciiPrefix;
+        final int end = offset + length;
+        while (index < end) {
+            final int c = bytes[index] & 0xFF;
+            switch (c >> 4) {
+                case 0: case 1: case 2: case 3: case 4: case 5: case 6: case 7:
+                    // 0xxxxxxx
+                    index++;
+                    chars[count++] = (char) c;
+                    break;
+                case 12: case 13: {
+                    // 110x xxxx 10xx xxxx
+                    if (index + 2 > end) {
+                        throw new UTFDataFormatException("malformed input: partial character at end");
+                    }
+                    final int char2 = bytes[index + 1];
+                    if ((char2 & 0xC0) != 0x80) {
+                        throw new UTFDataFormatException("malformed input around byte " + (index - offset + 1));
+                    }
+                    chars[count++] = (char) (((c & 0x1F) << 6) | (char2 & 0x3F));
+                    index += 2;
+                    break;
+                }
+                case 14: {
+                    // 1110 xxxx 10xx xxxx 10xx xxxx
+                    if (index + 3 > end) {
+                        throw new UTFDataFormatException("malformed input: partial character at end");
+                    }
+                    final int char2 = bytes[index + 1];
+                    final int char3 = bytes[index + 2];
+                    if ((char2 & 0xC0) != 0x80 || (char3 & 0xC0) != 0x80) {
+                        throw new UTFDataFormatException("malformed input around byte " + (index - offset + 2));
+                    }
+                    chars[count++] = (char) (((c & 0x0F) << 12) | ((char2 & 0x3F) << 6) | (char3 & 0x3F));
+                    index += 3;
+                    break;
+                }
+                default:
+                    // 10xx xxxx, 1111 xxxx
+                    throw new UTFDataFormatException("malformed input around byte " + (index - offset));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Skips over the payload of a tag, see {@link TagRegistry#skip(int, java.io.DataInput, TagLimiter, int)}.
+     */
+    void skip(final int id, final int nestingLevel) throws IOException {
+        switch (id) {
+            case ByteArrayTag.ID:
+                this.skip(this.readArrayLength(Byte.BYTES) * Byte.BYTES);
+                break;
+            case StringTag.ID:
+                this.skip(this.buffer.getShort() & 0xFFFF);
+                break;
+            case IntArrayTag.ID:
+                this.skip(this.readArrayLength(Integer.BYTES) * Integer.BYTES);
+                break;
+            case LongArrayTag.ID:
+                this.skip(this.readArrayLength(Long.BYTES) * Long.BYTES);
+                break;
+            case ListTag.ID: {
+                this.checkLevel(nestingLevel);
+                final int elementId = this.buffer.get();
+                this.skipElements(elementId, this.buffer.getInt(), nestingLevel);
+                break;
+            }
+            case CompoundTag.ID: {
+                this.checkLevel(nestingLevel);
+                int entryId;
+                while ((entryId = this.buffer.get()) != TagRegistry.END) {
+                    this.skip(this.buffer.getShort() & 0xFFFF); // Name
+                    this.skip(entryId, nestingLevel + 1);
+                }
+                break;
+            }
+            default:
+                final int size = TagRegistry.fixedSize(id);
+                if (size <= 0) {
+                    throw new IOException("Failed to skip tag.", new IllegalArgumentException("Could not find tag with ID \"" + id + "\"."));
+                }
+                this.skip(size);
+        }
+    }
+
+    void countByte() {
+        this.tagLimiter.countByte();
+    }
+
+    void countShort() {
+        this.tagLimiter.countShort();
+    }
+
+    void countInt() {
+        this.tagLimiter.countInt();
+    }
+
+    void countLong() {
+        this.tagLimiter.countLong();
+    }
+
+    void countFloat() {
+        this.tagLimiter.countFloat();
+    }
+
+    void countDouble() {
+        this.tagLimiter.countDouble();
+    }
+
+    void countBytes(final int bytes) {
+        this.tagLimiter.countBytes(bytes);
+    }
+
+    void checkLevel(final int nestingLevel) {
+        this.tagLimiter.checkLevel(nestingLevel);
+    }
+
+    /**
+     * Counts the elements of a number list one by one, like the {@link java.io.DataInput} path does.
+     */
+    void countElements(final int id, final int count) {
+        switch (id) {
+            case ByteTag.ID:
+                for (int i = 0; i < count; i++) {
+                    this.tagLimiter.countByte();
+                }
+                break;
+            case ShortTag.ID:
+                for (int i = 0; i < count; i++) {
+                    this.tagLimiter.countShort();
+                }
+                break;
+            case IntTag.ID:
+                for (int i = 0; i < count; i++) {
+                    this.tagLimiter.countInt();
+                }
+                break;
+            case LongTag.ID:
+                for (int i = 0; i < count; i++) {
+                    this.tagLimiter.countLong();
+                }
+                break;
+            case FloatTag.ID:
+                for (int i = 0; i < count; i++) {
+                    this.tagLimiter.countFloat();
+                }
+                break;
+            case DoubleTag.ID:
+                for (int i = 0; i < count; i++) {
+                    this.tagLimiter.countDouble();
+                }
+                break;
+        }
+    }
+
+    private void skipElements(final int elementId, final int count, final int nestingLevel) throws IOException {
+        final int elementSize = TagRegistry.fixedSize(elementId);
+        if (elementSize != -1) {
+            this.skip((long) Math.max(count, 0) * elementSize);
+        } else {
+            for (int i = 0; i < count; i++) {
+                this.skip(elementId, nestingLevel + 1);
+            }
+        }
+    }
+
+    private void skip(final long bytes) {
+        if (bytes > this.buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        this.buffer.position(this.buffer.position() + (int) bytes);
+    }
+}
@@ -0,0 +1,172 @@
+package com.viaversion.nbt.io;
+
+import com.viaversion.nbt.limiter.TagLimiter;
+import com.viaversion.nbt.tag.Tag;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compound map that only records where its entries are stored and creates their tags on first access.
+ * <p>
+ * The entries are recorded by {@link ByteBufferTagReader} while skipping over their payloads. {@link #get(Object)} and
+ * {@link #containsKey(Object)} work on the recorded entries, any other access materializes all remaining entries into a
+ * regular {@link LinkedHashMap} which is used from then on. Nested compounds are lazy again, sharing the same data array.
+ * Skipped payloads are only counted by the tag limiter once they are materialized.
+ */
+final class LazyCompoundMap extends AbstractMap<String, Tag> {
+    private static final int INDEX_THRESHOLD = 8;
+    private final byte[] data;
+    private final int nestingLevel;
+    // Null for trusted input
+    private final @Nullable TagLimiter tagLimiter;
+    private final StringCache stringCache;
+    private String[] keys = new String[4];
+    private byte[] ids = new byte[4];
+    private int[] offsets = new int[4];
+    private Tag[] values;
+    private int size;
+    private Object2IntMap<String> index;
+    private LinkedHashMap<String, Tag> map;
+
+    /**
+     * @param data         data the offsets point into, it must not be modified afterwards
+     * @param nestingLevel nesting level of the compound
+     * @param tagLimiter   tag limiter counting the entries when they are materialized, or null for trusted input
+     * @param stringCache  string cache used when materializing entries
+     */
+    LazyCompoundMap(final byte[] data, final int nestingLevel, @Nullable final TagLimiter tagLimiter, final StringCache stringCache) {
+        this.data = data;
+        this.nestingLevel = nestingLevel;
+        this.tagLimiter = tagLimiter;
+        this.stringCache = stringCache;
+    }
+
+    /**
+     * Records an entry, a later entry with the same key replaces the earlier one.
+     *
+     * @param key    key of the entry
+     * @param id     tag id of the entry
+     * @param offset offset of the entry's payload in the data array
+     */
+    void add(final String key, final int id, final int offset) {
+        int slot = this.indexOf(key);
+        if (slot == -1) {
+            slot = this.size++;
+            if (slot == this.keys.length) {
+                final int length = slot * 2;
+                this.keys = Arrays.copyOf(this.keys, length);
+                this.ids = Arrays.copyOf(this.ids, length);
+                this.offsets = Arrays.copyOf(this.offsets, length);
+            }
+            this.keys[slot] = key;
+            if (this.index != null) {
+                this.index.put(key, slot);
+            } else if (this.size > INDEX_THRESHOLD) {
+                this.index = new Object2IntOpenHashMap<>(this.keys.length);
+                this.index.defaultReturnValue(-1);
+                for (int i = 0; i < this.size; i++) {
+                    this.index.put(this.keys[i], i);
+                }
+            }
+        }
+        this.ids[slot] = (byte) id;
+        this.offsets[slot] = offset;
+    }
+
+    private int indexOf(final Object key) {
+        if (this.index != null) {
+            return this.index.getInt(key);
+        }
+        for (int i = 0; i < this.size; i++) {
+            if (this.keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public synchronized Tag get(final Object key) {
+        if (this.map != null) {
+            return this.map.get(key);
+        }
+
+        final int slot = this.indexOf(key);
+        return slot != -1 ? this.materialize(slot) : null;
+    }
+
+    @Override
+    public synchronized boolean containsKey(final Object key) {
+        return this.map != null ? this.map.containsKey(key) : this.indexOf(key) != -1;
+    }
+
+    @Override
+    public synchronized int size() {
+        return this.map != null ? this.map.size() : this.size;
+    }
+
+    @Override
+    public synchronized Tag put(final String key, final Tag value) {
+        return this.map().put(key, value);
+    }
+
+    @Override
+    public synchronized Tag remove(final Object key) {
+        return this.map().remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.map().clear();
+    }
+
+    @Override
+    public synchronized Set<Entry<String, Tag>> entrySet() {
+        return this.map().entrySet();
+    }
+
+    private Tag materialize(final int slot) {
+        if (this.values == null) {
+            this.values = new Tag[this.size];
+        }
+
+        Tag tag = this.values[slot];
+        if (tag == null) {
+            final ByteBuffer buffer = ByteBuffer.wrap(this.data);
+            buffer.position(this.offsets[slot]);
+            try {
+                // Skipping over the payload did not count its bytes, so they are counted now
+                tag = ByteBufferTagReader.create(buffer, this.tagLimiter, this.stringCache, true).read(this.ids[slot], this.nestingLevel + 1);
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Failed to read lazy tag " + this.keys[slot], e);
+            }
+            this.values[slot] = tag;
+        }
+        return tag;
+    }
+
+    private Map<String, Tag> map() {
+        if (this.map == null) {
+            final LinkedHashMap<String, Tag> map = new LinkedHashMap<>(Math.max(4, (int) (this.size / 0.75F) + 1));
+            for (int i = 0; i < this.size; i++) {
+                map.put(this.keys[i], this.materialize(i));
+            }
+            this.map = map;
+            this.keys = null;
+            this.ids = null;
+            this.offsets = null;
+            this.values = null;
+            this.index = null;
+        }
+        return this.map;
+    }
+}
@@ -5,6 +5,7 @@ import com.viaversion.nbt.limiter.TagLimiter;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -55,6 +56,21 @@ public final class NBTIO {
      * @throws IOException if an I/O error occurs
      */
     public static <T extends Tag> T readTag(final DataInput in, final TagLimiter tagLimiter, final boolean named, @Nullable final Class<T> expectedTagType) throws IOException {
+        return readTag(in, tagLimiter, named, expectedTagType, TagProjection.all());
+    }
+
+    /**
+     * Reads a named NBT tag from a data input, skipping everything outside of the projection without creating tags for it.
+     *
+     * @param in              input stream to read from
+     * @param tagLimiter      tag limiter to use
+     * @param named           whether the tag is named
+     * @param expectedTagType the expected tag type, or null if any is accepted
+     * @param projection      the paths to read
+     * @return the read tag
+     * @throws IOException if an I/O error occurs
+     */
+    public static <T extends Tag> T readTag(final DataInput in, final TagLimiter tagLimiter, final boolean named, @Nullable final Class<T> expectedTagType, final TagProjection projection) throws IOException {
         final int id = in.readByte();
         if (expectedTagType != null && expectedTagType != TagRegistry.getClassFor(id)) {
             throw new IOException("Expected tag type " + expectedTagType.getSimpleName() + " but got " + TagRegistry.getClassFor(id).getSimpleName());
@@ -65,7 +81,83 @@ public final class NBTIO {
         }
 
         //noinspection unchecked
-        return (T) TagRegistry.read(id, in, tagLimiter, 0);
+        return (T) TagRegistry.read(id, in, tagLimiter, 0, projection);
+    }
+
+    /**
+     * Reads a named NBT tag directly from a byte buffer, advancing its position past the tag.
+     * This avoids the per-primitive overhead of going through a {@link DataInput}.
+     *
+     * @param buffer          buffer to read from
+     * @param tagLimiter      tag limiter to use
+     * @param named           whether the tag is named
+     * @param expectedTagType the expected tag type, or null if any is accepted
+     * @return the read tag
+     * @throws IOException if an I/O error occurs or the buffer ends before the tag does
+     */
+    public static <T extends Tag> T readTag(final ByteBuffer buffer, final TagLimiter tagLimiter, final boolean named, @Nullable final Class<T> expectedTagType) throws IOException {
+        return readTag(buffer, tagLimiter, named, expectedTagType, TagProjection.all());
+    }
+
+    /**
+     * Reads a named NBT tag directly from a byte buffer, skipping everything outside of the projection without creating tags for it.
+     *
+     * @param buffer          buffer to read from
+     * @param tagLimiter      tag limiter to use
+     * @param named           whether the tag is named
+     * @param expectedTagType the expected tag type, or null if any is accepted
+     * @param projection      the paths to read
+     * @return the read tag
+     * @throws IOException if an I/O error occurs or the buffer ends before the tag does
+     */
+    public static <T extends Tag> T readTag(final ByteBuffer buffer, final TagLimiter tagLimiter, final boolean named, @Nullable final Class<T> expectedTagType, final TagProjection projection) throws IOException {
+        return new ByteBufferTagReader(buffer, tagLimiter).readRoot(named, expectedTagType, projection);
+    }
+
+    /**
+     * Reads a named NBT tag from trusted data, such as local region files, without any tag limiter accounting.
+     * Malformed or malicious data can exhaust memory or the stack, use {@link #readTag(ByteBuffer, TagLimiter, boolean, Class)} for untrusted input.
+     *
+     * @param buffer          buffer to read from
+     * @param named           whether the tag is named
+     * @param expectedTagType the expected tag type, or null if any is accepted
+     * @return the read tag
+     * @throws IOException if an I/O error occurs or the buffer ends before the tag does
+     */
+    public static <T extends Tag> T readTrustedTag(final ByteBuffer buffer, final boolean named, @Nullable final Class<T> expectedTagType) throws IOException {
+        return new TrustedByteBufferTagReader(buffer, StringCache.none(), false).readRoot(named, expectedTagType, TagProjection.all());
+    }
+
+    /**
+     * Reads a named NBT tag from a byte buffer, only creating the entries of compounds when they are accessed.
+     * The structure is still walked once, but entries are skipped over instead of being created.
+     * The remaining bytes of the buffer are copied and kept alive by the tag, so the buffer can be reused afterwards.
+     * Skipped payloads are counted by the tag limiter once their entries are accessed, so the limiter is kept by the tag
+     * and a limit exceeded later is thrown from the accessing call. The nesting level is checked while reading.
+     *
+     * @param buffer          buffer to read from
+     * @param tagLimiter      tag limiter to use
+     * @param named           whether the tag is named
+     * @param expectedTagType the expected tag type, or null if any is accepted
+     * @return the read tag
+     * @throws IOException if an I/O error occurs or the buffer ends before the tag does
+     */
+    public static <T extends Tag> T readLazyTag(final ByteBuffer buffer, final TagLimiter tagLimiter, final boolean named, @Nullable final Class<T> expectedTagType) throws IOException {
+        return ByteBufferTagReader.readLazyRoot(buffer, tagLimiter, StringCache.none(), named, expectedTagType, TagProjection.all());
+    }
+
+    /**
+     * Visits a named NBT tag directly from a byte buffer without creating any tags, advancing its position past the tag.
+     * Memory use only depends on the nesting depth of the tag.
+     *
+     * @param buffer     buffer to read from
+     * @param tagLimiter tag limiter to use, or null to trust the input and skip all limiter accounting
+     * @param named      whether the tag is named
+     * @param visitor    visitor receiving the tag contents
+     * @throws IOException if an I/O error occurs or the buffer ends before the tag does
+     */
+    public static void visit(final ByteBuffer buffer, @Nullable final TagLimiter tagLimiter, final boolean named, final TagVisitor visitor) throws IOException {
+        ByteBufferTagReader.create(buffer, tagLimiter, StringCache.none(), false).visitRoot(named, visitor);
     }
 
     /**
@@ -0,0 +1,16 @@
+package com.viaversion.nbt.io;
+
+import java.io.UTFDataFormatException;
+
+final class NoopStringCache implements StringCache {
+
+    static final StringCache INSTANCE = new NoopStringCache();
+
+    private NoopStringCache() {
+    }
+
+    @Override
+    public String get(byte[] bytes, int offset, int length) throws UTFDataFormatException {
+        return ByteBufferTagReader.decodeString(bytes, offset, length);
+    }
+}
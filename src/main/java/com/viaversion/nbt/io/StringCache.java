@@ -0,0 +1,45 @@
+package com.viaversion.nbt.io;
+
+import java.io.UTFDataFormatException;
+
+/**
+ * Deduplicates strings while reading NBT, so repeated keys and values such as block names resolve to one shared instance.
+ * <p>
+ * Lookups are keyed on the raw modified UTF-8 bytes, so a hit does not need to decode the string at all.
+ * Implementations are thread-safe and can be shared between readers.
+ *
+ * @see TagReader#stringCache(StringCache)
+ */
+public interface StringCache {
+
+    /**
+     * Returns a new bounded string cache. Once full, new strings replace older ones.
+     *
+     * @param capacity  max number of cached strings, rounded up to a power of two
+     * @param maxLength max length in bytes of strings to cache, longer strings are decoded without caching
+     * @return string cache
+     */
+    static StringCache create(int capacity, int maxLength) {
+        return new StringCacheImpl(capacity, maxLength);
+    }
+
+    /**
+     * Returns a string cache that does not cache anything.
+     *
+     * @return noop string cache
+     */
+    static StringCache none() {
+        return NoopStringCache.INSTANCE;
+    }
+
+    /**
+     * Returns the string encoded by the given modified UTF-8 bytes, a previously returned instance if possible.
+     *
+     * @param bytes  array holding the encoded string
+     * @param offset offset of the encoded string
+     * @param length length of the encoded string in bytes
+     * @return the decoded string
+     * @throws UTFDataFormatException if the bytes are not valid modified UTF-8
+     */
+    String get(byte[] bytes, int offset, int length) throws UTFDataFormatException;
+}
@@ -0,0 +1,89 @@
+package com.viaversion.nbt.io;
+
+import java.io.UTFDataFormatException;
+
+/**
+ * Open addressed string cache with a short probe sequence. When every probed slot is taken, the first one is replaced.
+ * <p>
+ * Entries are immutable and written with a single reference store, so concurrent readers either see a complete entry or
+ * none; a race can only lose an entry, never return a wrong string.
+ */
+final class StringCacheImpl implements StringCache {
+
+    private static final int MAX_PROBES = 4;
+    private final Entry[] table;
+    private final int mask;
+    private final int maxLength;
+
+    StringCacheImpl(int capacity, int maxLength) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        final int size = Integer.highestOneBit(Math.max(capacity, MAX_PROBES) - 1) << 1;
+        this.table = new Entry[size];
+        this.mask = size - 1;
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public String get(byte[] bytes, int offset, int length) throws UTFDataFormatException {
+        if (length > this.maxLength) {
+            return ByteBufferTagReader.decodeString(bytes, offset, length);
+        }
+
+        final int hash = hash(bytes, offset, length);
+        final Entry[] table = this.table;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            final int slot = (hash + probe) & this.mask;
+            final Entry entry = table[slot];
+            if (entry == null) {
+                return this.insert(slot, hash, bytes, offset, length);
+            }
+            if (entry.hash == hash && entry.matches(bytes, offset, length)) {
+                return entry.value;
+            }
+        }
+        return this.insert(hash & this.mask, hash, bytes, offset, length);
+    }
+
+    private String insert(int slot, int hash, byte[] bytes, int offset, int length) throws UTFDataFormatException {
+        final String value = ByteBufferTagReader.decodeString(bytes, offset, length);
+        final byte[] key = new byte[length];
+        System.arraycopy(bytes, offset, key, 0, length);
+        this.table[slot] = new Entry(key, hash, value);
+        return value;
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int hash = length;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Entry {
+
+        private final byte[] key;
+        private final int hash;
+        private final String value;
+
+        private Entry(byte[] key, int hash, String value) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+
+        private boolean matches(byte[] bytes, int offset, int length) {
+            if (this.key.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (this.key[i] != bytes[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
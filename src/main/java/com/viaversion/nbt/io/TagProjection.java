@@ -0,0 +1,146 @@
+package com.viaversion.nbt.io;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A set of tag paths to read, everything outside of them is skipped without creating any tags.
+ * <p>
+ * Paths are dot separated compound keys, for example {@code xPos} or {@code sections[].block_states}.
+ * The optional {@code []} suffix marks a list. Compounds inside a list are always projected with the projection of the
+ * list itself, so {@code sections[].Y} and {@code sections.Y} are equivalent. A path that ends at a compound or list
+ * includes its whole subtree. Projections are immutable and can be shared between threads.
+ *
+ * @see NBTIO#readTag(java.io.DataInput, com.viaversion.nbt.limiter.TagLimiter, boolean, Class, TagProjection)
+ */
+public final class TagProjection {
+    private static final TagProjection ALL = new TagProjection(Collections.emptyMap(), Collections.emptySet(), true);
+    private final Map<String, TagProjection> children;
+    private final Set<String> paths;
+    private final boolean all;
+
+    private TagProjection(final Map<String, TagProjection> children, final Set<String> paths, final boolean all) {
+        this.children = children;
+        this.paths = paths;
+        this.all = all;
+    }
+
+    /**
+     * Returns a projection including everything.
+     *
+     * @return projection including everything
+     */
+    public static TagProjection all() {
+        return ALL;
+    }
+
+    /**
+     * Returns a projection including only the given paths.
+     *
+     * @param paths paths to include
+     * @return projection of the given paths
+     * @throws IllegalArgumentException if a path is empty or contains an empty key
+     */
+    public static TagProjection of(final String... paths) {
+        return of(Arrays.asList(paths));
+    }
+
+    /**
+     * Returns a projection including only the given paths.
+     *
+     * @param paths paths to include
+     * @return projection of the given paths
+     * @throws IllegalArgumentException if a path is empty or contains an empty key
+     */
+    public static TagProjection of(final Collection<String> paths) {
+        final Node root = new Node();
+        for (final String path : paths) {
+            root.add(path);
+        }
+        return root.build(new LinkedHashSet<>(paths));
+    }
+
+    /**
+     * Returns a projection including the paths of this projection and the given paths.
+     *
+     * @param paths additional paths to include
+     * @return combined projection
+     */
+    public TagProjection with(final String... paths) {
+        if (this.all) {
+            return this;
+        }
+
+        final Set<String> combined = new LinkedHashSet<>(this.paths);
+        combined.addAll(Arrays.asList(paths));
+        return of(combined);
+    }
+
+    /**
+     * Returns the projection to read the entry with the given key of a compound with.
+     *
+     * @param key compound key
+     * @return projection for the entry, or null if the entry should be skipped
+     */
+    @Nullable
+    public TagProjection get(final String key) {
+        return this.all ? this : this.children.get(key);
+    }
+
+    /**
+     * Returns whether this projection includes the whole subtree.
+     *
+     * @return whether everything is included
+     */
+    public boolean isAll() {
+        return this.all;
+    }
+
+    @Override
+    public String toString() {
+        return this.all ? "TagProjection{*}" : "TagProjection" + this.paths;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private boolean all;
+
+        private void add(final String path) {
+            if (path.isEmpty()) {
+                throw new IllegalArgumentException("Empty projection path");
+            }
+
+            Node node = this;
+            for (final String segment : path.split("\\.", -1)) {
+                final String key = segment.endsWith("[]") ? segment.substring(0, segment.length() - 2) : segment;
+                if (key.isEmpty()) {
+                    throw new IllegalArgumentException("Empty key in projection path \"" + path + "\"");
+                }
+                if (node.all) {
+                    return; // Already included by a shorter path
+                }
+                node = node.children.computeIfAbsent(key, k -> new Node());
+            }
+            node.all = true;
+            node.children.clear();
+        }
+
+        private TagProjection build(final Set<String> paths) {
+            if (this.all) {
+                return ALL;
+            }
+
+            final Map<String, TagProjection> children = new HashMap<>(this.children.size() * 2);
+            for (final Map.Entry<String, Node> entry : this.children.entrySet()) {
+                children.put(entry.getKey(), entry.getValue().build(Collections.emptySet()));
+            }
+            return new TagProjection(children, paths, false);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.zip.GZIPInputStream;
@@ -21,7 +22,11 @@ import org.jetbrains.annotations.Nullable;
 public final class TagReader<T extends Tag> {
     private final Class<T> expectedTagType;
     private TagLimiter tagLimiter = TagLimiter.noop();
+    private TagProjection projection = TagProjection.all();
+    private StringCache stringCache = StringCache.none();
     private boolean named;
+    private boolean lazy;
+    private boolean trusted;
 
     TagReader(@Nullable final Class<T> expectedTagType) {
         this.expectedTagType = expectedTagType;
@@ -48,6 +53,50 @@ public final class TagReader<T extends Tag> {
         return this;
     }
 
+    /**
+     * Sets the projection to read, everything outside of it is skipped.
+     *
+     * @param projection the paths to read
+     * @return self
+     */
+    public TagReader<T> projection(final TagProjection projection) {
+        this.projection = projection;
+        return this;
+    }
+
+    /**
+     * Sets the string cache used to deduplicate keys and string values. Only used when reading from a buffer or byte array.
+     *
+     * @param stringCache the string cache to use
+     * @return self
+     */
+    public TagReader<T> stringCache(final StringCache stringCache) {
+        this.stringCache = stringCache;
+        return this;
+    }
+
+    /**
+     * Sets this reader to create the entries of compounds only when they are accessed, see {@link NBTIO#readLazyTag}.
+     * Only used when reading from a buffer or byte array.
+     *
+     * @return self
+     */
+    public TagReader<T> lazy() {
+        this.lazy = true;
+        return this;
+    }
+
+    /**
+     * Sets this reader to trust its input, skipping all tag limiter accounting. Only used when reading from a buffer or byte array.
+     * Only use this for data that is known to be well-formed, such as local region files.
+     *
+     * @return self
+     */
+    public TagReader<T> trusted() {
+        this.trusted = true;
+        return this;
+    }
+
     /**
      * Reads the tag from the given data output.
      *
@@ -56,7 +105,36 @@ public final class TagReader<T extends Tag> {
      */
     public T read(final DataInput in) throws IOException {
         this.tagLimiter.reset();
-        return NBTIO.readTag(in, this.tagLimiter, this.named, this.expectedTagType);
+        return NBTIO.readTag(in, this.tagLimiter, this.named, this.expectedTagType, this.projection);
+    }
+
+    /**
+     * Reads the tag from the given buffer, advancing its position past the tag.
+     *
+     * @param buffer buffer to read from
+     * @return the read tag
+     * @throws IOException if an I/O error occurs
+     */
+    public T read(final ByteBuffer buffer) throws IOException {
+        final TagLimiter tagLimiter = this.trusted ? null : this.tagLimiter;
+        if (tagLimiter != null) {
+            tagLimiter.reset();
+        }
+        if (this.lazy) {
+            return ByteBufferTagReader.readLazyRoot(buffer, tagLimiter, this.stringCache, this.named, this.expectedTagType, this.projection);
+        }
+        return ByteBufferTagReader.create(buffer, tagLimiter, this.stringCache, false).readRoot(this.named, this.expectedTagType, this.projection);
+    }
+
+    /**
+     * Reads the tag from the given byte array.
+     *
+     * @param bytes bytes to read from
+     * @return the read tag
+     * @throws IOException if an I/O error occurs
+     */
+    public T read(final byte[] bytes) throws IOException {
+        return this.read(ByteBuffer.wrap(bytes));
     }
 
     /**
@@ -104,6 +104,129 @@ public final class TagRegistry {
         return supplier.create(in, tagLimiter, nestingLevel);
     }
 
+    /**
+     * Reads the tag with the given id, only including the entries of compounds selected by the projection.
+     *
+     * @param id         Id of the tag.
+     * @param projection Projection of the tag, entries outside of it are skipped.
+     * @return The created tag.
+     * @throws IllegalArgumentException if no tags is registered over the provided id
+     */
+    public static Tag read(int id, DataInput in, TagLimiter tagLimiter, int nestingLevel, TagProjection projection) throws IOException {
+        if (!projection.isAll()) {
+            if (id == CompoundTag.ID) {
+                return CompoundTag.read(in, tagLimiter, nestingLevel, projection);
+            } else if (id == ListTag.ID) {
+                return ListTag.read(in, tagLimiter, nestingLevel, projection);
+            }
+        }
+        return read(id, in, tagLimiter, nestingLevel);
+    }
+
+    /**
+     * Skips over the payload of a tag with the given id without creating it.
+     * Skipped bytes are not counted by the tag limiter, but the nesting level still is checked.
+     *
+     * @param id Id of the tag.
+     * @throws IOException if the input ends before the tag does
+     * @throws IllegalArgumentException if no tags is registered over the provided id
+     */
+    public static void skip(int id, DataInput in, TagLimiter tagLimiter, int nestingLevel) throws IOException {
+        switch (id) {
+            case ByteTag.ID:
+                skipFully(in, Byte.BYTES);
+                break;
+            case ShortTag.ID:
+                skipFully(in, Short.BYTES);
+                break;
+            case IntTag.ID:
+            case FloatTag.ID:
+                skipFully(in, Integer.BYTES);
+                break;
+            case LongTag.ID:
+            case DoubleTag.ID:
+                skipFully(in, Long.BYTES);
+                break;
+            case ByteArrayTag.ID:
+                skipFully(in, (long) in.readInt() * Byte.BYTES);
+                break;
+            case StringTag.ID:
+                skipFully(in, in.readUnsignedShort());
+                break;
+            case IntArrayTag.ID:
+                skipFully(in, (long) in.readInt() * Integer.BYTES);
+                break;
+            case LongArrayTag.ID:
+                skipFully(in, (long) in.readInt() * Long.BYTES);
+                break;
+            case ListTag.ID: {
+                tagLimiter.checkLevel(nestingLevel);
+                final int elementId = in.readByte();
+                final int count = in.readInt();
+                final int elementSize = fixedSize(elementId);
+                if (elementSize != -1) {
+                    skipFully(in, (long) Math.max(count, 0) * elementSize);
+                } else {
+                    for (int i = 0; i < count; i++) {
+                        skip(elementId, in, tagLimiter, nestingLevel + 1);
+                    }
+                }
+                break;
+            }
+            case CompoundTag.ID: {
+                tagLimiter.checkLevel(nestingLevel);
+                int entryId;
+                while ((entryId = in.readByte()) != END) {
+                    skipFully(in, in.readUnsignedShort()); // Name
+                    skip(entryId, in, tagLimiter, nestingLevel + 1);
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Could not find tag with ID \"" + id + "\".");
+        }
+    }
+
+    /**
+     * Returns the payload size of tags with the given id if it is fixed.
+     *
+     * @param id Id of the tag.
+     * @return The payload size in bytes, or -1 if it depends on the payload.
+     */
+    public static int fixedSize(int id) {
+        switch (id) {
+            case END:
+                return 0;
+            case ByteTag.ID:
+                return Byte.BYTES;
+            case ShortTag.ID:
+                return Short.BYTES;
+            case IntTag.ID:
+            case FloatTag.ID:
+                return Integer.BYTES;
+            case LongTag.ID:
+            case DoubleTag.ID:
+                return Long.BYTES;
+            default:
+                return -1;
+        }
+    }
+
+    private static void skipFully(DataInput in, long bytes) throws IOException {
+        if (bytes < 0) {
+            throw new IOException("Negative length " + bytes);
+        }
+        while (bytes > 0) {
+            final int skipped = in.skipBytes((int) Math.min(bytes, Integer.MAX_VALUE));
+            if (skipped > 0) {
+                bytes -= skipped;
+            } else {
+                in.readByte(); // Either makes progress or throws an EOFException
+                bytes--;
+            }
+        }
+    }
+
     private static final class RegisteredTagType {
 
         private final Class<? extends Tag> type;
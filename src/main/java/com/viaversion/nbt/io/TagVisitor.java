@@ -0,0 +1,100 @@
+package com.viaversion.nbt.io;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Receives the contents of an NBT tag as a stream of events instead of a tag tree, see {@link NBTIO#visit(ByteBuffer, com.viaversion.nbt.limiter.TagLimiter, boolean, TagVisitor)}.
+ * <p>
+ * Events are delivered depth first in the order the tags are stored. All methods default to doing nothing, so only
+ * the relevant ones have to be implemented. Array contents are passed as read-only views into the source buffer,
+ * which are only valid for the duration of the call.
+ */
+public interface TagVisitor {
+
+    /**
+     * Called for every entry of a compound before its value.
+     *
+     * @param key name of the entry
+     * @param id  tag id of the entry
+     * @return whether to visit the value, if false the value is skipped without any events
+     */
+    default boolean visitKey(final String key, final int id) {
+        return true;
+    }
+
+    /**
+     * Called when a compound starts.
+     */
+    default void visitCompoundStart() {
+    }
+
+    /**
+     * Called when a compound ends.
+     */
+    default void visitCompoundEnd() {
+    }
+
+    /**
+     * Called when a list starts.
+     *
+     * @param elementId tag id of the elements
+     * @param size      number of elements
+     * @return whether to visit the elements, if false they are skipped and {@link #visitListEnd()} is not called
+     */
+    default boolean visitListStart(final int elementId, final int size) {
+        return true;
+    }
+
+    /**
+     * Called when a list ends.
+     */
+    default void visitListEnd() {
+    }
+
+    default void visitByte(final byte value) {
+    }
+
+    default void visitShort(final short value) {
+    }
+
+    default void visitInt(final int value) {
+    }
+
+    default void visitLong(final long value) {
+    }
+
+    default void visitFloat(final float value) {
+    }
+
+    default void visitDouble(final double value) {
+    }
+
+    default void visitString(final String value) {
+    }
+
+    /**
+     * Called for a byte array.
+     *
+     * @param value read-only view of the array, only valid during this call
+     */
+    default void visitByteArray(final ByteBuffer value) {
+    }
+
+    /**
+     * Called for an int array.
+     *
+     * @param value read-only view of the array, only valid during this call
+     */
+    default void visitIntArray(final IntBuffer value) {
+    }
+
+    /**
+     * Called for a long array.
+     *
+     * @param value read-only view of the array, only valid during this call
+     */
+    default void visitLongArray(final LongBuffer value) {
+    }
+}
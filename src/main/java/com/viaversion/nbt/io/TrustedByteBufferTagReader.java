@@ -0,0 +1,54 @@
+package com.viaversion.nbt.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ByteBufferTagReader} for trusted input, such as local region files, with all limiter accounting removed.
+ * <p>
+ * The count methods are empty instead of checking for a missing limiter, so once they are inlined the trusted read
+ * paths contain no limiter calls or checks at all. Lazy compounds read by this reader are materialized as trusted too.
+ *
+ * @see NBTIO#readTrustedTag(ByteBuffer, boolean, Class)
+ */
+final class TrustedByteBufferTagReader extends ByteBufferTagReader {
+
+    TrustedByteBufferTagReader(final ByteBuffer buffer, final StringCache stringCache, final boolean lazy) {
+        super(buffer, null, stringCache, lazy);
+    }
+
+    @Override
+    void countByte() {
+    }
+
+    @Override
+    void countShort() {
+    }
+
+    @Override
+    void countInt() {
+    }
+
+    @Override
+    void countLong() {
+    }
+
+    @Override
+    void countFloat() {
+    }
+
+    @Override
+    void countDouble() {
+    }
+
+    @Override
+    void countBytes(final int bytes) {
+    }
+
+    @Override
+    void checkLevel(final int nestingLevel) {
+    }
+
+    @Override
+    void countElements(final int id, final int count) {
+    }
+}
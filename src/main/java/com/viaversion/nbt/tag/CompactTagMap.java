@@ -0,0 +1,278 @@
+package com.viaversion.nbt.tag;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Insertion ordered map backing compound tags.
+ * <p>
+ * Up to {@link #MAX_ARRAY_SIZE} entries are stored in parallel key and value arrays that are searched linearly, which
+ * avoids the entry objects and hash table of a {@link LinkedHashMap} for the many tiny compounds in chunk data.
+ * Larger maps switch to a {@link LinkedHashMap} for good.
+ */
+final class CompactTagMap extends AbstractMap<String, Tag> {
+    static final int MAX_ARRAY_SIZE = 8;
+    private static final String[] EMPTY_KEYS = new String[0];
+    private static final Tag[] EMPTY_VALUES = new Tag[0];
+    private String[] keys;
+    private Tag[] values;
+    private int size;
+    private int modCount;
+    private LinkedHashMap<String, Tag> map;
+    private Set<Entry<String, Tag>> entrySet;
+
+    CompactTagMap() {
+        this.keys = EMPTY_KEYS;
+        this.values = EMPTY_VALUES;
+    }
+
+    CompactTagMap(final Map<String, Tag> map) {
+        this();
+        if (map.size() > MAX_ARRAY_SIZE) {
+            this.map = new LinkedHashMap<>(map);
+        } else {
+            this.keys = new String[map.size()];
+            this.values = new Tag[map.size()];
+            for (final Entry<String, Tag> entry : map.entrySet()) {
+                this.keys[this.size] = entry.getKey();
+                this.values[this.size++] = entry.getValue();
+            }
+        }
+    }
+
+    private int indexOf(final Object key) {
+        final String[] keys = this.keys;
+        for (int i = 0; i < this.size; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return this.map != null ? this.map.size() : this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return this.map != null ? this.map.containsKey(key) : this.indexOf(key) != -1;
+    }
+
+    @Override
+    public @Nullable Tag get(final Object key) {
+        if (this.map != null) {
+            return this.map.get(key);
+        }
+
+        final int index = this.indexOf(key);
+        return index != -1 ? this.values[index] : null;
+    }
+
+    @Override
+    public @Nullable Tag put(final String key, final Tag value) {
+        if (this.map != null) {
+            return this.map.put(key, value);
+        }
+
+        Objects.requireNonNull(key, "key cannot be null");
+        final int index = this.indexOf(key);
+        if (index != -1) {
+            final Tag previous = this.values[index];
+            this.values[index] = value;
+            return previous;
+        }
+
+        if (this.size == MAX_ARRAY_SIZE) {
+            final LinkedHashMap<String, Tag> map = new LinkedHashMap<>(MAX_ARRAY_SIZE * 4);
+            for (int i = 0; i < this.size; i++) {
+                map.put(this.keys[i], this.values[i]);
+            }
+            map.put(key, value);
+            this.map = map;
+            this.keys = EMPTY_KEYS;
+            this.values = EMPTY_VALUES;
+            this.size = 0;
+            this.modCount++;
+            return null;
+        }
+
+        if (this.size == this.keys.length) {
+            final int length = Math.min(MAX_ARRAY_SIZE, Math.max(2, this.size * 2));
+            this.keys = Arrays.copyOf(this.keys, length);
+            this.values = Arrays.copyOf(this.values, length);
+        }
+        this.keys[this.size] = key;
+        this.values[this.size++] = value;
+        this.modCount++;
+        return null;
+    }
+
+    @Override
+    public @Nullable Tag remove(final Object key) {
+        if (this.map != null) {
+            return this.map.remove(key);
+        }
+
+        final int index = this.indexOf(key);
+        if (index == -1) {
+            return null;
+        }
+        final Tag previous = this.values[index];
+        this.removeAt(index);
+        return previous;
+    }
+
+    private void removeAt(final int index) {
+        final int moved = this.size - index - 1;
+        System.arraycopy(this.keys, index + 1, this.keys, index, moved);
+        System.arraycopy(this.values, index + 1, this.values, index, moved);
+        this.size--;
+        this.keys[this.size] = null;
+        this.values[this.size] = null;
+        this.modCount++;
+    }
+
+    @Override
+    public void clear() {
+        if (this.map != null) {
+            this.map.clear();
+            return;
+        }
+
+        Arrays.fill(this.keys, 0, this.size, null);
+        Arrays.fill(this.values, 0, this.size, null);
+        this.size = 0;
+        this.modCount++;
+    }
+
+    @Override
+    public Set<Entry<String, Tag>> entrySet() {
+        if (this.entrySet == null) {
+            this.entrySet = new EntrySet();
+        }
+        return this.entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, Tag>> {
+
+        @Override
+        public Iterator<Entry<String, Tag>> iterator() {
+            return map != null ? map.entrySet().iterator() : new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return CompactTagMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            CompactTagMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Tag>> {
+        private int expectedModCount = modCount;
+        private int next;
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return this.next < size;
+        }
+
+        @Override
+        public Entry<String, Tag> next() {
+            if (modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (this.next >= size) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.next++;
+            return new ArrayEntry(this.last);
+        }
+
+        @Override
+        public void remove() {
+            if (this.last == -1) {
+                throw new IllegalStateException();
+            }
+            if (modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(this.last);
+            this.next = this.last;
+            this.last = -1;
+            this.expectedModCount = modCount;
+        }
+    }
+
+    private final class ArrayEntry implements Entry<String, Tag> {
+        private final int index;
+        private final int expectedModCount = modCount;
+
+        private ArrayEntry(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            this.checkModCount();
+            return keys[this.index];
+        }
+
+        @Override
+        public Tag getValue() {
+            this.checkModCount();
+            return values[this.index];
+        }
+
+        @Override
+        public Tag setValue(final Tag value) {
+            this.checkModCount();
+            final Tag previous = values[this.index];
+            values[this.index] = value;
+            return previous;
+        }
+
+        private void checkModCount() {
+            if (modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Entry)) return false;
+            final Entry<?, ?> entry = (Entry<?, ?>) o;
+            return this.getKey().equals(entry.getKey()) && Objects.equals(this.getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return this.getKey().hashCode() ^ Objects.hashCode(this.getValue());
+        }
+
+        @Override
+        public String toString() {
+            return this.getKey() + "=" + this.getValue();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.viaversion.nbt.tag;
 
+import com.viaversion.nbt.io.TagProjection;
 import com.viaversion.nbt.io.TagRegistry;
 import com.viaversion.nbt.stringified.SNBT;
 import com.viaversion.nbt.limiter.TagLimiter;
@@ -25,7 +26,7 @@ public final class CompoundTag implements Tag, Iterable<Entry<String, Tag>> {
      * Creates a tag.
      */
     public CompoundTag() {
-        this(new LinkedHashMap<>());
+        this.value = new CompactTagMap();
     }
 
     /**
@@ -34,7 +35,11 @@ public final class CompoundTag implements Tag, Iterable<Entry<String, Tag>> {
      * @param value The value of the tag.
      */
     public CompoundTag(Map<String, Tag> value) {
-        this.value = new LinkedHashMap<>(value);
+        this(value, true);
+    }
+
+    private CompoundTag(Map<String, Tag> value, boolean copy) {
+        this.value = copy ? new CompactTagMap(value) : value;
     }
 
     /**
@@ -49,7 +54,32 @@ public final class CompoundTag implements Tag, Iterable<Entry<String, Tag>> {
         this.value = value;
     }
 
+    /**
+     * Creates a tag backed by the given map, without copying it.
+     * This is meant for custom map implementations such as lazily read compounds, the map must keep insertion order.
+     *
+     * @param value The value of the tag.
+     * @return The created tag.
+     */
+    public static CompoundTag wrap(Map<String, Tag> value) {
+        if (value == null) {
+            throw new NullPointerException("value cannot be null");
+        }
+        return new CompoundTag(value, false);
+    }
+
     public static CompoundTag read(DataInput in, TagLimiter tagLimiter, int nestingLevel) throws IOException {
+        return read(in, tagLimiter, nestingLevel, TagProjection.all());
+    }
+
+    /**
+     * Reads a compound tag, skipping all entries that are not included in the projection.
+     *
+     * @param projection projection of the compound
+     * @return the read compound tag
+     * @throws IOException if an I/O error occurs
+     */
+    public static CompoundTag read(DataInput in, TagLimiter tagLimiter, int nestingLevel, TagProjection projection) throws IOException {
         tagLimiter.checkLevel(nestingLevel);
         int newNestingLevel = nestingLevel + 1;
         int id;
@@ -65,9 +95,14 @@ public final class CompoundTag implements Tag, Iterable<Entry<String, Tag>> {
             String name = in.readUTF();
             tagLimiter.countBytes(2 * name.length());
 
+            TagProjection entryProjection = projection.get(name);
             Tag tag;
             try {
-                tag = TagRegistry.read(id, in, tagLimiter, newNestingLevel);
+                if (entryProjection == null) {
+                    TagRegistry.skip(id, in, tagLimiter, newNestingLevel);
+                    continue;
+                }
+                tag = TagRegistry.read(id, in, tagLimiter, newNestingLevel, entryProjection);
             } catch (IllegalArgumentException e) {
                 throw new IOException("Failed to create tag.", e);
             }
@@ -95,7 +130,7 @@ public final class CompoundTag implements Tag, Iterable<Entry<String, Tag>> {
         if (value == null) {
             throw new NullPointerException("value cannot be null");
         }
-        this.value = new LinkedHashMap<>(value);
+        this.value = new CompactTagMap(value);
     }
 
     /**
@@ -473,12 +508,12 @@ public final class CompoundTag implements Tag, Iterable<Entry<String, Tag>> {
 
     @Override
     public CompoundTag copy() {
-        LinkedHashMap<String, Tag> newMap = new LinkedHashMap<>();
+        CompactTagMap newMap = new CompactTagMap();
         for (Entry<String, Tag> entry : this.value.entrySet()) {
             newMap.put(entry.getKey(), entry.getValue().copy());
         }
 
-        return new CompoundTag(newMap);
+        return new CompoundTag(newMap, false);
     }
 
     @Override
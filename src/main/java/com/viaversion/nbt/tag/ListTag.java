@@ -1,8 +1,15 @@
 package com.viaversion.nbt.tag;
 
+import com.viaversion.nbt.io.TagProjection;
 import com.viaversion.nbt.io.TagRegistry;
 import com.viaversion.nbt.stringified.SNBT;
 import com.viaversion.nbt.limiter.TagLimiter;
+import it.unimi.dsi.fastutil.bytes.ByteList;
+import it.unimi.dsi.fastutil.doubles.DoubleList;
+import it.unimi.dsi.fastutil.floats.FloatList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.shorts.ShortList;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
@@ -36,7 +43,7 @@ public final class ListTag<T extends Tag> implements Tag, Iterable<T> {
      */
     public ListTag(Class<T> type) {
         this.type = type;
-        this.value = new ArrayList<>();
+        this.value = createList(type);
     }
 
     /**
@@ -51,6 +58,17 @@ public final class ListTag<T extends Tag> implements Tag, Iterable<T> {
     }
 
     public static ListTag<?> read(DataInput in, TagLimiter tagLimiter, int nestingLevel) throws IOException {
+        return read(in, tagLimiter, nestingLevel, TagProjection.all());
+    }
+
+    /**
+     * Reads a list tag, projecting every compound inside it with the given projection.
+     *
+     * @param projection projection of the list elements
+     * @return the read list tag
+     * @throws IOException if an I/O error occurs
+     */
+    public static ListTag<?> read(DataInput in, TagLimiter tagLimiter, int nestingLevel, TagProjection projection) throws IOException {
         tagLimiter.checkLevel(nestingLevel);
         tagLimiter.countBytes(Byte.BYTES + Integer.BYTES);
 
@@ -62,18 +80,23 @@ public final class ListTag<T extends Tag> implements Tag, Iterable<T> {
                 throw new IOException("Unknown tag ID in ListTag: " + id);
             }
         }
-        return read(in, id, type, tagLimiter, nestingLevel);
+        return read(in, id, type, tagLimiter, nestingLevel, projection);
     }
 
-    private static <T extends Tag> ListTag<T> read(DataInput in, int id, Class<T> type, TagLimiter tagLimiter, int nestingLevel) throws IOException {
+    private static <T extends Tag> ListTag<T> read(DataInput in, int id, Class<T> type, TagLimiter tagLimiter, int nestingLevel, TagProjection projection) throws IOException {
         ListTag<T> listTag = new ListTag<>(type);
         int count = in.readInt();
+        if (listTag.value instanceof NumberTagList) {
+            ((NumberTagList<?>) listTag.value).read(in, count, tagLimiter);
+            return listTag;
+        }
+
         int newNestingLevel = nestingLevel + 1;
         for (int index = 0; index < count; index++) {
             T tag;
             try {
                 //noinspection unchecked
-                tag = (T) TagRegistry.read(id, in, tagLimiter, newNestingLevel);
+                tag = (T) TagRegistry.read(id, in, tagLimiter, newNestingLevel, projection);
             } catch (IllegalArgumentException e) {
                 throw new IOException("Failed to create tag.", e);
             }
@@ -82,6 +105,15 @@ public final class ListTag<T extends Tag> implements Tag, Iterable<T> {
         return listTag;
     }
 
+    /**
+     * Creates the backing list for the given element type, storing number tags as primitives.
+     */
+    private static <T extends Tag> List<T> createList(@Nullable Class<T> type) {
+        NumberTagList<?> numbers = NumberTagList.create(type);
+        //noinspection unchecked
+        return numbers != null ? (List<T>) numbers : new ArrayList<>();
+    }
+
     @Override
     public List<T> getValue() {
         return this.value; // TODO Make unmodifiable
@@ -100,7 +132,6 @@ public final class ListTag<T extends Tag> implements Tag, Iterable<T> {
      * @throws IllegalArgumentException If all tags in the list are not of the same type.
      */
     public void setValue(List<T> value) {
-        this.value = new ArrayList<>(value);
         if (!value.isEmpty()) {
             if (this.type == null) {
                 this.type = (Class<T>) value.get(0).getClass();
@@ -109,6 +140,8 @@ public final class ListTag<T extends Tag> implements Tag, Iterable<T> {
                 this.checkType(t);
             }
         }
+        this.value = createList(this.type);
+        this.value.addAll(value);
     }
 
     /**
@@ -136,6 +169,9 @@ public final class ListTag<T extends Tag> implements Tag, Iterable<T> {
     private void checkAddedTag(T tag) {
         if (this.type == null) {
             this.type = (Class<T>) tag.getClass();
+            if (this.value.isEmpty()) {
+                this.value = createList(this.type);
+            }
         } else {
             this.checkType(tag);
         }
@@ -202,6 +238,60 @@ public final class ListTag<T extends Tag> implements Tag, Iterable<T> {
         return this.value.isEmpty();
     }
 
+    /**
+     * Returns the byte values of this list without creating tags for them, changes to the returned list are reflected in this tag.
+     *
+     * @return the backing byte list, or null if this is not a list of ByteTags
+     */
+    public @Nullable ByteList asByteList() {
+        return this.value instanceof NumberTagList.ByteTagList ? ((NumberTagList.ByteTagList) this.value).list : null;
+    }
+
+    /**
+     * Returns the short values of this list without creating tags for them, changes to the returned list are reflected in this tag.
+     *
+     * @return the backing short list, or null if this is not a list of ShortTags
+     */
+    public @Nullable ShortList asShortList() {
+        return this.value instanceof NumberTagList.ShortTagList ? ((NumberTagList.ShortTagList) this.value).list : null;
+    }
+
+    /**
+     * Returns the int values of this list without creating tags for them, changes to the returned list are reflected in this tag.
+     *
+     * @return the backing int list, or null if this is not a list of IntTags
+     */
+    public @Nullable IntList asIntList() {
+        return this.value instanceof NumberTagList.IntTagList ? ((NumberTagList.IntTagList) this.value).list : null;
+    }
+
+    /**
+     * Returns the long values of this list without creating tags for them, changes to the returned list are reflected in this tag.
+     *
+     * @return the backing long list, or null if this is not a list of LongTags
+     */
+    public @Nullable LongList asLongList() {
+        return this.value instanceof NumberTagList.LongTagList ? ((NumberTagList.LongTagList) this.value).list : null;
+    }
+
+    /**
+     * Returns the float values of this list without creating tags for them, changes to the returned list are reflected in this tag.
+     *
+     * @return the backing float list, or null if this is not a list of FloatTags
+     */
+    public @Nullable FloatList asFloatList() {
+        return this.value instanceof NumberTagList.FloatTagList ? ((NumberTagList.FloatTagList) this.value).list : null;
+    }
+
+    /**
+     * Returns the double values of this list without creating tags for them, changes to the returned list are reflected in this tag.
+     *
+     * @return the backing double list, or null if this is not a list of DoubleTags
+     */
+    public @Nullable DoubleList asDoubleList() {
+        return this.value instanceof NumberTagList.DoubleTagList ? ((NumberTagList.DoubleTagList) this.value).list : null;
+    }
+
     public Stream<T> stream() {
         return this.value.stream();
     }
@@ -225,6 +315,10 @@ public final class ListTag<T extends Tag> implements Tag, Iterable<T> {
         }
 
         out.writeInt(this.value.size());
+        if (this.value instanceof NumberTagList) {
+            ((NumberTagList<?>) this.value).write(out);
+            return;
+        }
         for (Tag tag : this.value) {
             tag.write(out);
         }
@@ -233,6 +327,11 @@ public final class ListTag<T extends Tag> implements Tag, Iterable<T> {
     @Override
     public ListTag<T> copy() {
         ListTag<T> copy = new ListTag<>(this.type);
+        if (this.value instanceof NumberTagList) {
+            // Number tags are immutable, copying the primitives is enough
+            copy.value = (List<T>) ((NumberTagList<?>) this.value).copy();
+            return copy;
+        }
         copy.value = new ArrayList<>(this.value.size());
         for (T value : this.value) {
             copy.add((T) value.copy());
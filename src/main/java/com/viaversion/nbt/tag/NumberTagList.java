@@ -0,0 +1,444 @@
+package com.viaversion.nbt.tag;
+
+import com.viaversion.nbt.limiter.TagLimiter;
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.shorts.ShortArrayList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * List tag contents for numeric element types, stored in a primitive fastutil list instead of one tag object per element.
+ * <p>
+ * The {@link java.util.List} view creates the (immutable) number tags on access, while {@link ListTag#asIntList()} and
+ * friends give direct access to the primitive values.
+ *
+ * @param <T> the number tag type
+ */
+abstract class NumberTagList<T extends NumberTag> extends AbstractList<T> implements RandomAccess {
+    private static final int MAX_INITIAL_CAPACITY = 4096;
+
+    /**
+     * Creates an empty list for the given element type.
+     *
+     * @param type the element type
+     * @return an empty list, or null if the type is not a number tag
+     */
+    static @Nullable NumberTagList<?> create(@Nullable final Class<? extends Tag> type) {
+        if (type == ByteTag.class) {
+            return new ByteTagList(new ByteArrayList());
+        } else if (type == ShortTag.class) {
+            return new ShortTagList(new ShortArrayList());
+        } else if (type == IntTag.class) {
+            return new IntTagList(new IntArrayList());
+        } else if (type == LongTag.class) {
+            return new LongTagList(new LongArrayList());
+        } else if (type == FloatTag.class) {
+            return new FloatTagList(new FloatArrayList());
+        } else if (type == DoubleTag.class) {
+            return new DoubleTagList(new DoubleArrayList());
+        }
+        return null;
+    }
+
+    /**
+     * Returns how many elements to allocate up front for a list read from a stream.
+     * <p>
+     * The count comes from the data and is not checked before the elements are read, so the capacity is capped by what
+     * the tag limiter could let through and by a fixed amount, beyond which the list grows as elements are counted.
+     */
+    static int initialCapacity(final int count, final int elementBytes, final TagLimiter tagLimiter) {
+        return Math.min(count, Math.min(MAX_INITIAL_CAPACITY, tagLimiter.maxBytes() / elementBytes));
+    }
+
+    /**
+     * Reads the given number of elements without creating tags for them.
+     */
+    abstract void read(DataInput in, int count, TagLimiter tagLimiter) throws IOException;
+
+    /**
+     * Writes all elements without creating tags for them.
+     */
+    abstract void write(DataOutput out) throws IOException;
+
+    abstract NumberTagList<T> copy();
+
+    static final class ByteTagList extends NumberTagList<ByteTag> {
+        final ByteArrayList list;
+
+        ByteTagList(final ByteArrayList list) {
+            this.list = list;
+        }
+
+        @Override
+        public ByteTag get(final int index) {
+            return new ByteTag(this.list.getByte(index));
+        }
+
+        @Override
+        public ByteTag set(final int index, final ByteTag tag) {
+            return new ByteTag(this.list.set(index, tag.asByte()));
+        }
+
+        @Override
+        public void add(final int index, final ByteTag tag) {
+            this.list.add(index, tag.asByte());
+            this.modCount++;
+        }
+
+        @Override
+        public ByteTag remove(final int index) {
+            this.modCount++;
+            return new ByteTag(this.list.removeByte(index));
+        }
+
+        @Override
+        public int size() {
+            return this.list.size();
+        }
+
+        @Override
+        public void clear() {
+            this.list.clear();
+            this.modCount++;
+        }
+
+        @Override
+        void read(final DataInput in, final int count, final TagLimiter tagLimiter) throws IOException {
+            this.list.ensureCapacity(initialCapacity(count, 1, tagLimiter));
+            for (int i = 0; i < count; i++) {
+                tagLimiter.countByte();
+                this.list.add(in.readByte());
+            }
+        }
+
+        @Override
+        void write(final DataOutput out) throws IOException {
+            for (int i = 0, size = this.list.size(); i < size; i++) {
+                out.writeByte(this.list.getByte(i));
+            }
+        }
+
+        @Override
+        NumberTagList<ByteTag> copy() {
+            return new ByteTagList(new ByteArrayList(this.list));
+        }
+    }
+
+    static final class ShortTagList extends NumberTagList<ShortTag> {
+        final ShortArrayList list;
+
+        ShortTagList(final ShortArrayList list) {
+            this.list = list;
+        }
+
+        @Override
+        public ShortTag get(final int index) {
+            return new ShortTag(this.list.getShort(index));
+        }
+
+        @Override
+        public ShortTag set(final int index, final ShortTag tag) {
+            return new ShortTag(this.list.set(index, tag.asShort()));
+        }
+
+        @Override
+        public void add(final int index, final ShortTag tag) {
+            this.list.add(index, tag.asShort());
+            this.modCount++;
+        }
+
+        @Override
+        public ShortTag remove(final int index) {
+            this.modCount++;
+            return new ShortTag(this.list.removeShort(index));
+        }
+
+        @Override
+        public int size() {
+            return this.list.size();
+        }
+
+        @Override
+        public void clear() {
+            this.list.clear();
+            this.modCount++;
+        }
+
+        @Override
+        void read(final DataInput in, final int count, final TagLimiter tagLimiter) throws IOException {
+            this.list.ensureCapacity(initialCapacity(count, 2, tagLimiter));
+            for (int i = 0; i < count; i++) {
+                tagLimiter.countShort();
+                this.list.add(in.readShort());
+            }
+        }
+
+        @Override
+        void write(final DataOutput out) throws IOException {
+            for (int i = 0, size = this.list.size(); i < size; i++) {
+                out.writeShort(this.list.getShort(i));
+            }
+        }
+
+        @Override
+        NumberTagList<ShortTag> copy() {
+            return new ShortTagList(new ShortArrayList(this.list));
+        }
+    }
+
+    static final class IntTagList extends NumberTagList<IntTag> {
+        final IntArrayList list;
+
+        IntTagList(final IntArrayList list) {
+            this.list = list;
+        }
+
+        @Override
+        public IntTag get(final int index) {
+            return new IntTag(this.list.getInt(index));
+        }
+
+        @Override
+        public IntTag set(final int index, final IntTag tag) {
+            return new IntTag(this.list.set(index, tag.asInt()));
+        }
+
+        @Override
+        public void add(final int index, final IntTag tag) {
+            this.list.add(index, tag.asInt());
+            this.modCount++;
+        }
+
+        @Override
+        public IntTag remove(final int index) {
+            this.modCount++;
+            return new IntTag(this.list.removeInt(index));
+        }
+
+        @Override
+        public int size() {
+            return this.list.size();
+        }
+
+        @Override
+        public void clear() {
+            this.list.clear();
+            this.modCount++;
+        }
+
+        @Override
+        void read(final DataInput in, final int count, final TagLimiter tagLimiter) throws IOException {
+            this.list.ensureCapacity(initialCapacity(count, 4, tagLimiter));
+            for (int i = 0; i < count; i++) {
+                tagLimiter.countInt();
+                this.list.add(in.readInt());
+            }
+        }
+
+        @Override
+        void write(final DataOutput out) throws IOException {
+            for (int i = 0, size = this.list.size(); i < size; i++) {
+                out.writeInt(this.list.getInt(i));
+            }
+        }
+
+        @Override
+        NumberTagList<IntTag> copy() {
+            return new IntTagList(new IntArrayList(this.list));
+        }
+    }
+
+    static final class LongTagList extends NumberTagList<LongTag> {
+        final LongArrayList list;
+
+        LongTagList(final LongArrayList list) {
+            this.list = list;
+        }
+
+        @Override
+        public LongTag get(final int index) {
+            return new LongTag(this.list.getLong(index));
+        }
+
+        @Override
+        public LongTag set(final int index, final LongTag tag) {
+            return new LongTag(this.list.set(index, tag.asLong()));
+        }
+
+        @Override
+        public void add(final int index, final LongTag tag) {
+            this.list.add(index, tag.asLong());
+            this.modCount++;
+        }
+
+        @Override
+        public LongTag remove(final int index) {
+            this.modCount++;
+            return new LongTag(this.list.removeLong(index));
+        }
+
+        @Override
+        public int size() {
+            return this.list.size();
+        }
+
+        @Override
+        public void clear() {
+            this.list.clear();
+            this.modCount++;
+        }
+
+        @Override
+        void read(final DataInput in, final int count, final TagLimiter tagLimiter) throws IOException {
+            this.list.ensureCapacity(initialCapacity(count, 8, tagLimiter));
+            for (int i = 0; i < count; i++) {
+                tagLimiter.countLong();
+                this.list.add(in.readLong());
+            }
+        }
+
+        @Override
+        void write(final DataOutput out) throws IOException {
+            for (int i = 0, size = this.list.size(); i < size; i++) {
+                out.writeLong(this.list.getLong(i));
+            }
+        }
+
+        @Override
+        NumberTagList<LongTag> copy() {
+            return new LongTagList(new LongArrayList(this.list));
+        }
+    }
+
+    static final class FloatTagList extends NumberTagList<FloatTag> {
+        final FloatArrayList list;
+
+        FloatTagList(final FloatArrayList list) {
+            this.list = list;
+        }
+
+        @Override
+        public FloatTag get(final int index) {
+            return new FloatTag(this.list.getFloat(index));
+        }
+
+        @Override
+        public FloatTag set(final int index, final FloatTag tag) {
+            return new FloatTag(this.list.set(index, tag.asFloat()));
+        }
+
+        @Override
+        public void add(final int index, final FloatTag tag) {
+            this.list.add(index, tag.asFloat());
+            this.modCount++;
+        }
+
+        @Override
+        public FloatTag remove(final int index) {
+            this.modCount++;
+            return new FloatTag(this.list.removeFloat(index));
+        }
+
+        @Override
+        public int size() {
+            return this.list.size();
+        }
+
+        @Override
+        public void clear() {
+            this.list.clear();
+            this.modCount++;
+        }
+
+        @Override
+        void read(final DataInput in, final int count, final TagLimiter tagLimiter) throws IOException {
+            this.list.ensureCapacity(initialCapacity(count, 4, tagLimiter));
+            for (int i = 0; i < count; i++) {
+                tagLimiter.countFloat();
+                this.list.add(in.readFloat());
+            }
+        }
+
+        @Override
+        void write(final DataOutput out) throws IOException {
+            for (int i = 0, size = this.list.size(); i < size; i++) {
+                out.writeFloat(this.list.getFloat(i));
+            }
+        }
+
+        @Override
+        NumberTagList<FloatTag> copy() {
+            return new FloatTagList(new FloatArrayList(this.list));
+        }
+    }
+
+    static final class DoubleTagList extends NumberTagList<DoubleTag> {
+        final DoubleArrayList list;
+
+        DoubleTagList(final DoubleArrayList list) {
+            this.list = list;
+        }
+
+        @Override
+        public DoubleTag get(final int index) {
+            return new DoubleTag(this.list.getDouble(index));
+        }
+
+        @Override
+        public DoubleTag set(final int index, final DoubleTag tag) {
+            return new DoubleTag(this.list.set(index, tag.asDouble()));
+        }
+
+        @Override
+        public void add(final int index, final DoubleTag tag) {
+            this.list.add(index, tag.asDouble());
+            this.modCount++;
+        }
+
+        @Override
+        public DoubleTag remove(final int index) {
+            this.modCount++;
+            return new DoubleTag(this.list.removeDouble(index));
+        }
+
+        @Override
+        public int size() {
+            return this.list.size();
+        }
+
+        @Override
+        public void clear() {
+            this.list.clear();
+            this.modCount++;
+        }
+
+        @Override
+        void read(final DataInput in, final int count, final TagLimiter tagLimiter) throws IOException {
+            this.list.ensureCapacity(initialCapacity(count, 8, tagLimiter));
+            for (int i = 0; i < count; i++) {
+                tagLimiter.countDouble();
+                this.list.add(in.readDouble());
+            }
+        }
+
+        @Override
+        void write(final DataOutput out) throws IOException {
+            for (int i = 0, size = this.list.size(); i < size; i++) {
+                out.writeDouble(this.list.getDouble(i));
+            }
+        }
+
+        @Override
+        NumberTagList<DoubleTag> copy() {
+            return new DoubleTagList(new DoubleArrayList(this.list));
+        }
+    }
+}